@@ -0,0 +1,129 @@
+package com.example.android.newsapp;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.widget.ListView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measurement harness for the news list item, executed on an Android device.
+ * Reports the median inflate, measure and bind time per row, for both the portrait
+ * and the landscape (layout-land) version of the row. The results are written to the log
+ * and to the instrumentation status, so they show up in the "am instrument" output.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NewsListItemBenchmark {
+
+    private static final String LOG_TAG = NewsListItemBenchmark.class.getSimpleName();
+
+    private static final int WARM_UP_ROWS = 10;
+    private static final int MEASURED_ROWS = 50;
+
+    @Test
+    public void portraitRow() {
+        measureRows(Configuration.ORIENTATION_PORTRAIT, "portrait");
+    }
+
+    @Test
+    public void landscapeRow() {
+        measureRows(Configuration.ORIENTATION_LANDSCAPE, "landscape");
+    }
+
+    private void measureRows(final int orientation, final String label) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = contextFor(orientation);
+                ListView parent = new ListView(context);
+                NewsAdapter adapter = new NewsAdapter(context, articles());
+
+                DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+                int width = orientation == Configuration.ORIENTATION_LANDSCAPE
+                        ? Math.max(metrics.widthPixels, metrics.heightPixels)
+                        : Math.min(metrics.widthPixels, metrics.heightPixels);
+                int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+                int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+                long[] inflate = new long[MEASURED_ROWS];
+                long[] bind = new long[MEASURED_ROWS];
+                long[] measure = new long[MEASURED_ROWS];
+
+                for (int i = -WARM_UP_ROWS; i < MEASURED_ROWS; i++) {
+
+                    long start = System.nanoTime();
+                    View row = adapter.newRow(parent);
+                    long inflated = System.nanoTime();
+                    adapter.getView(Math.abs(i) % adapter.getCount(), row, parent);
+                    long bound = System.nanoTime();
+                    row.measure(widthSpec, heightSpec);
+                    row.layout(0, 0, row.getMeasuredWidth(), row.getMeasuredHeight());
+                    long measured = System.nanoTime();
+
+                    assertTrue(row.getMeasuredHeight() > 0);
+
+                    if (i >= 0) {
+                        inflate[i] = inflated - start;
+                        bind[i] = bound - inflated;
+                        measure[i] = measured - bound;
+                    }
+                }
+
+                report(label, median(inflate), median(measure), median(bind));
+            }
+        });
+    }
+
+    // Context resolving the resources for the given orientation, so layout-land is picked up
+    private static Context contextFor(int orientation) {
+        Context target = InstrumentationRegistry.getTargetContext();
+        Configuration configuration = new Configuration(target.getResources().getConfiguration());
+        configuration.orientation = orientation;
+        return new ContextThemeWrapper(target.createConfigurationContext(configuration), R.style.AppTheme);
+    }
+
+    private static List<News> articles() {
+        List<News> articles = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            articles.add(new News("World news", "2018-03-0" + i + "T10:00:00Z",
+                    "Poland's Senate passes controversial Holocaust speech bill | Christian Davies",
+                    "https://www.theguardian.com/world/" + i, "Christian Davies",
+                    "Bill would outlaw mention of Polish complicity in Nazi crimes and ban the phrase "
+                            + "Polish death camps", "No thumbnail", ""));
+        }
+
+        return articles;
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = Arrays.copyOf(nanos, nanos.length);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1e6;
+    }
+
+    private static void report(String label, double inflate, double measure, double bind) {
+        String result = String.format(Locale.US, "%s row: inflate %.3f ms, measure %.3f ms, bind %.3f ms",
+                label, inflate, measure, bind);
+        Log.i(LOG_TAG, result);
+
+        Bundle status = new Bundle();
+        status.putString(LOG_TAG, result);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.android.newsapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.webkit.WebView;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * In-app reader displaying an article body that has been read ahead
+ * and stored in the {@link ArticleCache}.
+ */
+public class ArticleActivity extends AppCompatActivity {
+
+    /**
+     * Intent extras describing the article to display
+     */
+    private static final String EXTRA_ARTICLE_URL = "articleUrl";
+    private static final String EXTRA_ARTICLE_TITLE = "articleTitle";
+
+    private static final String MIME_TYPE = "text/html";
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * Wrapping for the article body, scaling it and its images to the screen width
+     */
+    private static final String HTML_HEADER = "<html><head>"
+            + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">"
+            + "<style>body{margin:16px;}img,figure,iframe{max-width:100%;height:auto;}</style>"
+            + "</head><body>";
+    private static final String HTML_FOOTER = "</body></html>";
+
+    /**
+     * Task reading the article body from the disk
+     */
+    private LoadBodyTask mLoadBodyTask;
+
+    /**
+     * Returns an intent opening the given article in the in-app reader.
+     */
+    static Intent newIntent(Context context, News article) {
+        Intent intent = new Intent(context, ArticleActivity.class);
+        intent.putExtra(EXTRA_ARTICLE_URL, article.getArticleUrl());
+        intent.putExtra(EXTRA_ARTICLE_TITLE, article.getArticleTitle());
+        return intent;
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_article);
+
+        String articleUrl = getIntent().getStringExtra(EXTRA_ARTICLE_URL);
+        setTitle(getIntent().getStringExtra(EXTRA_ARTICLE_TITLE));
+
+        // The body can take a few megabytes, so it's read off the main thread
+        mLoadBodyTask = new LoadBodyTask(this, ArticleCache.from(this), articleUrl);
+        mLoadBodyTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        if (mLoadBodyTask != null) {
+            mLoadBodyTask.cancel(false);
+        }
+    }
+
+    // Displays the body read from the disk, or opens the article in the web browser if it's gone
+    private void showBody(String articleUrl, String body) {
+
+        if (body == null) {
+            // The body has been evicted in the meantime, fall back to the web browser
+            startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(articleUrl)));
+            finish();
+            return;
+        }
+
+        WebView articleView = findViewById(R.id.article_body);
+
+        // Relative links and images in the body are resolved against the article's url
+        articleView.loadDataWithBaseURL(articleUrl, HTML_HEADER + body + HTML_FOOTER, MIME_TYPE, ENCODING, null);
+    }
+
+    /**
+     * Reads the stored body of an article on a background thread. Holds the activity weakly,
+     * so a reader closed in the meantime isn't kept alive until the read ends.
+     */
+    private static class LoadBodyTask extends AsyncTask<Void, Void, String> {
+
+        private final WeakReference<ArticleActivity> mActivity;
+        private final ArticleCache mCache;
+        private final String mArticleUrl;
+
+        LoadBodyTask(ArticleActivity activity, ArticleCache cache, String articleUrl) {
+            mActivity = new WeakReference<>(activity);
+            mCache = cache;
+            mArticleUrl = articleUrl;
+        }
+
+        @Override
+        protected String doInBackground(Void... params) {
+            return mCache.get(mArticleUrl);
+        }
+
+        @Override
+        protected void onPostExecute(String body) {
+            ArticleActivity activity = mActivity.get();
+
+            if (activity != null && !activity.isFinishing()) {
+                activity.showBody(mArticleUrl, body);
+            }
+        }
+    }
+}
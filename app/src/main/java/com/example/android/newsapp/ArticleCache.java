@@ -0,0 +1,229 @@
+package com.example.android.newsapp;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Disk store for article bodies downloaded ahead of time, so that an article can be
+ * opened in the in-app reader without a network round trip.
+ * The total size of the stored bodies is kept within the given disk budget by removing
+ * the least recently used articles first.
+ */
+class ArticleCache {
+
+    /**
+     * Name of the directory (inside the app's cache directory) holding the article bodies
+     */
+    private static final String CACHE_DIRECTORY = "articles";
+
+    /**
+     * Default disk budget for the stored article bodies
+     */
+    static final long DEFAULT_MAX_BYTES = 5 * 1024 * 1024;
+
+    private static final String FILE_EXTENSION = ".html";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Directory the article bodies are stored in
+     */
+    private final File mDirectory;
+
+    /**
+     * Maximum number of bytes all stored article bodies may take
+     */
+    private final long mMaxBytes;
+
+    /**
+     * Constructs a new {@link ArticleCache}.
+     *
+     * @param directory where the article bodies are stored
+     * @param maxBytes  is the disk budget for all stored article bodies
+     */
+    ArticleCache(File directory, long maxBytes) {
+        mDirectory = directory;
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the {@link ArticleCache} located in the app's cache directory.
+     */
+    static ArticleCache from(Context context) {
+        return new ArticleCache(new File(context.getCacheDir(), CACHE_DIRECTORY), DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Returns true if the body of the article with the given url is stored.
+     */
+    boolean contains(String articleUrl) {
+        return fileFor(articleUrl).isFile();
+    }
+
+    /**
+     * Stores the body of the article with the given url. Returns false if the body
+     * is empty, does not fit in the disk budget or could not be written.
+     */
+    boolean put(String articleUrl, String body) {
+
+        if (articleUrl == null || body == null || body.isEmpty()) {
+            return false;
+        }
+
+        final byte[] bytes = body.getBytes(UTF_8);
+
+        // Single article larger than the whole budget, there's no point in storing it
+        if (bytes.length > mMaxBytes) {
+            return false;
+        }
+
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            return false;
+        }
+
+        boolean written = CacheFiles.writeAtomically(fileFor(articleUrl), new CacheFiles.ContentWriter() {
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                outputStream.write(bytes);
+            }
+        });
+
+        if (!written) {
+            return false;
+        }
+
+        trimToSize();
+
+        return true;
+    }
+
+    /**
+     * Returns the stored body of the article with the given url,
+     * or null if the article is not stored.
+     */
+    String get(String articleUrl) {
+
+        File file = fileFor(articleUrl);
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        InputStream inputStream = null;
+
+        try {
+
+            byte[] bytes = new byte[(int) file.length()];
+            inputStream = new FileInputStream(file);
+
+            int offset = 0;
+
+            while (offset < bytes.length) {
+
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+
+                if (read == -1) {
+                    break;
+                }
+
+                offset += read;
+            }
+
+            // Marking the article as recently used, so it's evicted last
+            file.setLastModified(System.currentTimeMillis());
+
+            return new String(bytes, 0, offset, UTF_8);
+
+        } catch (IOException e) {
+
+            return null;
+
+        } finally {
+
+            CacheFiles.closeQuietly(inputStream);
+
+        }
+    }
+
+    /**
+     * Returns the number of bytes taken by all stored article bodies.
+     */
+    long size() {
+
+        long size = 0;
+
+        File[] files = listArticleFiles();
+
+        for (File file : files) {
+            size += file.length();
+        }
+
+        return size;
+    }
+
+    // Removes the least recently used article bodies until the disk budget is met
+    private void trimToSize() {
+
+        File[] files = listArticleFiles();
+
+        long size = 0;
+
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= mMaxBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                long firstModified = first.lastModified();
+                long secondModified = second.lastModified();
+                return firstModified < secondModified ? -1 : (firstModified == secondModified ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < files.length && size > mMaxBytes; i++) {
+
+            long length = files[i].length();
+
+            if (files[i].delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private File[] listArticleFiles() {
+
+        File[] files = mDirectory.listFiles();
+
+        if (files == null) {
+            return new File[0];
+        }
+
+        int count = 0;
+
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_EXTENSION)) {
+                files[count++] = file;
+            }
+        }
+
+        return Arrays.copyOf(files, count);
+    }
+
+    // Returns the file the body of the article with the given url is stored in
+    private File fileFor(String articleUrl) {
+        return new File(mDirectory, CacheFiles.keyFor(articleUrl) + FILE_EXTENSION);
+    }
+}
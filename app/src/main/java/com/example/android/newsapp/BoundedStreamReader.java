@@ -0,0 +1,142 @@
+package com.example.android.newsapp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads a whole UTF-8 response into a String, refusing responses larger than the given budget.
+ * The bytes are read straight into a buffer reused by the following reads and decoded once
+ * into the resulting String, without any intermediate lines or builders.
+ * A single buffer is shared by all threads, so the app keeps at most one buffer of the default
+ * budget (4 MB) for good, however many threads read. Concurrent reads get their own buffers.
+ */
+class BoundedStreamReader {
+
+    /**
+     * Default budget for a single response
+     */
+    static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Initial size of the buffer when the length of the response is unknown
+     */
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Buffers larger than this are dropped after the read instead of being kept for reuse.
+     * Big enough for any response within the default budget, including the extra byte
+     * telling the response is too large.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = DEFAULT_MAX_BYTES + 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Read buffer kept for reuse, taken out while a read uses it */
+    private static final AtomicReference<byte[]> sPooledBuffer = new AtomicReference<>();
+
+    /**
+     * Thrown when the response is larger than the budget.
+     */
+    static class ResponseTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResponseTooLargeException(long maxBytes) {
+            super("Response larger than " + maxBytes + " bytes");
+        }
+    }
+
+    /** Maximum number of bytes read from a stream */
+    private final int mMaxBytes;
+
+    /** Number of bytes read by the last call to read */
+    private int mBytesRead;
+
+    /**
+     * Constructs a new {@link BoundedStreamReader}.
+     *
+     * @param maxBytes is the maximum size of a response
+     */
+    BoundedStreamReader(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Reads the whole stream and decodes it as UTF-8.
+     *
+     * @param inputStream   to read from
+     * @param contentLength is the length of the response declared by the server, or -1 if unknown
+     * @throws ResponseTooLargeException if the response is larger than the budget, as soon as
+     *                                   that's known - before reading anything if the declared
+     *                                   length is already too large
+     */
+    String read(InputStream inputStream, long contentLength) throws IOException {
+
+        mBytesRead = 0;
+
+        if (contentLength > mMaxBytes) {
+            throw new ResponseTooLargeException(mMaxBytes);
+        }
+
+        // Taking the buffer out of the pool, so no other thread reads into it meanwhile
+        byte[] buffer = sPooledBuffer.getAndSet(null);
+
+        int expectedSize = contentLength > 0 ? (int) contentLength + 1 : INITIAL_BUFFER_SIZE;
+
+        if (buffer == null || buffer.length < expectedSize && buffer.length < mMaxBytes) {
+            buffer = new byte[(int) Math.min(expectedSize, mMaxBytes + 1L)];
+        }
+
+        int count = 0;
+
+        try {
+
+            while (true) {
+
+                if (count == buffer.length) {
+                    // Never more than one byte over the budget, which is enough to tell the stream is too large
+                    byte[] grown = new byte[(int) Math.min((long) buffer.length * 2, mMaxBytes + 1L)];
+                    System.arraycopy(buffer, 0, grown, 0, count);
+                    buffer = grown;
+                }
+
+                int read = inputStream.read(buffer, count, buffer.length - count);
+
+                if (read == -1) {
+                    break;
+                }
+
+                count += read;
+
+                if (count > mMaxBytes) {
+                    throw new ResponseTooLargeException(mMaxBytes);
+                }
+            }
+
+            mBytesRead = count;
+
+            return new String(buffer, 0, count, UTF_8);
+
+        } finally {
+
+            // Putting the buffer back, replacing a smaller one another thread may have put back meanwhile
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                byte[] pooled = sPooledBuffer.get();
+
+                if (pooled == null || pooled.length < buffer.length) {
+                    sPooledBuffer.compareAndSet(pooled, buffer);
+                }
+            }
+
+        }
+    }
+
+    /**
+     * Returns the number of bytes read by the last call to read.
+     */
+    int getBytesRead() {
+        return mBytesRead;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.android.newsapp;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * File helpers shared by the disk stores of the app, the {@link ArticleCache} and the {@link FeedStore}.
+ */
+class CacheFiles {
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Writes the content of a file to the given stream.
+     */
+    interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private CacheFiles() {
+    }
+
+    /**
+     * Returns a file name safe key for the given url.
+     */
+    static String keyFor(String url) {
+
+        try {
+
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes(UTF_8));
+            char[] hex = new char[digest.length * 2];
+
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+            }
+
+            return new String(hex);
+
+        } catch (NoSuchAlgorithmException e) {
+
+            // SHA-1 is always available, falling back to the hash code just in case
+            return Integer.toHexString(url.hashCode());
+
+        }
+    }
+
+    /**
+     * Writes the file by writing a temporary file first and renaming it over the target,
+     * so a reader never sees a partially written file. Returns false if it could not be written.
+     */
+    static boolean writeAtomically(File target, ContentWriter writer) {
+
+        File temp = new File(target.getParentFile(), target.getName() + TEMP_EXTENSION);
+
+        OutputStream outputStream = null;
+
+        try {
+
+            outputStream = new BufferedOutputStream(new FileOutputStream(temp));
+            writer.writeTo(outputStream);
+
+            outputStream.close();
+            outputStream = null;
+
+        } catch (IOException e) {
+
+            closeQuietly(outputStream);
+            temp.delete();
+            return false;
+
+        }
+
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Closes the stream, ignoring a failure to close it.
+     */
+    static void closeQuietly(Closeable closeable) {
+
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+
+            closeable.close();
+
+        } catch (IOException ignored) {
+            // Nothing to do, the data has already been read or written
+        }
+    }
+}
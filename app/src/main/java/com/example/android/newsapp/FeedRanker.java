@@ -0,0 +1,500 @@
+package com.example.android.newsapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking stage for the articles of one or several merged feeds.
+ * Articles are ordered by their publication date, moved up by the section and author
+ * preferences, and the duplicates are removed - both the articles pointing to the same
+ * canonical url and the ones with nearly the same title. Of the duplicates, the highest
+ * ranked article is kept.
+ * This is meant to run on a background thread, e.g. in the {@link NewsLoader}.
+ */
+class FeedRanker {
+
+    /**
+     * Number of buckets (min hashes) in the title signature and the number of them per LSH band
+     */
+    private static final int SIGNATURE_SIZE = 16;
+    private static final int ROWS_PER_BAND = 2;
+    private static final int BAND_COUNT = SIGNATURE_SIZE / ROWS_PER_BAND;
+
+    /**
+     * Length of the character shingles the titles are split into
+     */
+    private static final int SHINGLE_LENGTH = Long.SIZE / Character.SIZE;
+
+    /**
+     * Split of a shingle hash into the signature bucket (top bits) and the value kept in it
+     */
+    private static final int BUCKET_SHIFT = 64 - Integer.numberOfTrailingZeros(SIGNATURE_SIZE);
+    private static final long VALUE_MASK = (1L << BUCKET_SHIFT) - 1;
+
+    /**
+     * Minimal number of equal min hashes out of the whole signature (estimated Jaccard
+     * similarity of the title shingles) for two titles to be considered near duplicates
+     */
+    private static final int NEAR_DUPLICATE_MATCHES = 12;
+
+    /**
+     * Minimal exact Jaccard similarity of the title shingles confirming a signature match,
+     * since with 16 buckets unrelated titles sharing a few words match now and then
+     */
+    private static final float NEAR_DUPLICATE_SIMILARITY = 0.7f;
+
+    /**
+     * Maximal number of kept articles compared per band. A band shared by more articles
+     * comes from shingles common to many titles, like stop words, and tells nothing more
+     */
+    private static final int MAX_CANDIDATES_PER_BAND = 8;
+
+    /**
+     * Number of low bits of the sort key holding the article's index
+     */
+    private static final int INDEX_BITS = 21;
+    private static final int MAX_ARTICLES = 1 << INDEX_BITS;
+
+    private static final int SECONDS_PER_HOUR = 60 * 60;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Number of hours articles from the given sections and authors are moved up by
+     */
+    private final Map<String, Integer> mSectionBoostHours;
+    private final Map<String, Integer> mAuthorBoostHours;
+
+    /**
+     * Constructs a new {@link FeedRanker} ordering the articles by recency only.
+     */
+    FeedRanker() {
+        this(Collections.<String, Integer>emptyMap(), Collections.<String, Integer>emptyMap());
+    }
+
+    /**
+     * Constructs a new {@link FeedRanker}.
+     *
+     * @param sectionBoostHours is the number of hours articles from the given section are moved up by
+     * @param authorBoostHours  is the number of hours articles of the given author are moved up by
+     */
+    FeedRanker(Map<String, Integer> sectionBoostHours, Map<String, Integer> authorBoostHours) {
+        mSectionBoostHours = sectionBoostHours;
+        mAuthorBoostHours = authorBoostHours;
+    }
+
+    /**
+     * Returns a new list with the given articles ranked and deduplicated.
+     */
+    List<News> rank(List<News> articles) {
+
+        int count = Math.min(articles.size(), MAX_ARTICLES);
+
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        // Sort keys hold the score in the high bits and the reversed index in the low bits,
+        // so sorting primitives gives the ranking, with ties kept in the original order
+        long[] sortKeys = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            long score = Math.max(0, score(articles.get(i)));
+            sortKeys[i] = (score << INDEX_BITS) | (MAX_ARTICLES - 1 - i);
+        }
+
+        Arrays.sort(sortKeys);
+
+        LongIntHashMap seenUrls = new LongIntHashMap(count);
+
+        // Last kept article with the given band, the earlier ones are chained behind it,
+        // so every kept article sharing a band with a candidate is compared, not just the first
+        LongIntHashMap seenBands = new LongIntHashMap(count * BAND_COUNT);
+        int[] bandChains = new int[count * BAND_COUNT];
+
+        // Signatures of the kept articles, indexed by the position in the result
+        long[] keptSignatures = new long[count * SIGNATURE_SIZE];
+        long[] signature = new long[SIGNATURE_SIZE];
+        long[] bandKeys = new long[BAND_COUNT];
+
+        List<News> ranked = new ArrayList<>(count);
+
+        for (int i = count - 1; i >= 0; i--) {
+
+            News article = articles.get(MAX_ARTICLES - 1 - (int) (sortKeys[i] & (MAX_ARTICLES - 1)));
+
+            int position = ranked.size();
+
+            if (!seenUrls.putIfAbsent(canonicalUrlHash(article.getArticleUrl()), position)) {
+                continue;
+            }
+
+            // Articles without a title can't be compared, so they're only deduplicated by url
+            if (titleSignature(article.getArticleTitle(), signature)) {
+
+                for (int band = 0; band < BAND_COUNT; band++) {
+                    bandKeys[band] = bandKey(signature, band);
+                }
+
+                if (isNearDuplicate(article.getArticleTitle(), signature, bandKeys, seenBands, bandChains,
+                        keptSignatures, ranked)) {
+                    continue;
+                }
+
+                for (int band = 0; band < BAND_COUNT; band++) {
+                    bandChains[position * BAND_COUNT + band] = seenBands.put(bandKeys[band], position, -1);
+                }
+            }
+
+            System.arraycopy(signature, 0, keptSignatures, position * SIGNATURE_SIZE, SIGNATURE_SIZE);
+            ranked.add(article);
+        }
+
+        return ranked;
+    }
+
+    // Returns the article's score - publication time in seconds, moved up by the preferences
+    private long score(News article) {
+
+        long score = parseDateSeconds(article.getDatePublished());
+
+        Integer sectionBoost = mSectionBoostHours.get(article.getSectionName());
+
+        if (sectionBoost != null) {
+            score += (long) sectionBoost * SECONDS_PER_HOUR;
+        }
+
+        Integer authorBoost = mAuthorBoostHours.get(article.getArticleAuthor());
+
+        if (authorBoost != null) {
+            score += (long) authorBoost * SECONDS_PER_HOUR;
+        }
+
+        return score;
+    }
+
+    // Returns true if any kept article shares a band with the signature and is similar enough
+    private static boolean isNearDuplicate(String title, long[] signature, long[] bandKeys, LongIntHashMap seenBands,
+                                           int[] bandChains, long[] keptSignatures, List<News> kept) {
+
+        long[] shingles = null;
+
+        for (int band = 0; band < BAND_COUNT; band++) {
+
+            int candidate = seenBands.get(bandKeys[band], -1);
+
+            for (int compared = 0; candidate != -1 && compared < MAX_CANDIDATES_PER_BAND; compared++) {
+
+                int matches = 0;
+                int offset = candidate * SIGNATURE_SIZE;
+
+                for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                    if (keptSignatures[offset + i] == signature[i]) {
+                        matches++;
+                    }
+                }
+
+                if (matches >= NEAR_DUPLICATE_MATCHES) {
+
+                    // Rare enough to afford the exact comparison of the titles
+                    if (shingles == null) {
+                        shingles = titleShingles(title);
+                    }
+
+                    if (similarity(shingles, titleShingles(kept.get(candidate).getArticleTitle()))
+                            >= NEAR_DUPLICATE_SIMILARITY) {
+                        return true;
+                    }
+                }
+
+                candidate = bandChains[candidate * BAND_COUNT + band];
+            }
+        }
+
+        return false;
+    }
+
+    private static long bandKey(long[] signature, int band) {
+
+        long key = band;
+
+        for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+            key = mix(key * FNV_PRIME + signature[i]);
+        }
+
+        return key;
+    }
+
+    /**
+     * Computes the min hash signature of the title's character shingles into the given array.
+     * The title is lower cased and reduced to letters and digits separated by single spaces,
+     * so that punctuation and spacing differences don't matter.
+     * Returns false if the title has no letters or digits, so it has no signature.
+     */
+    static boolean titleSignature(String title, long[] signature) {
+
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        if (title == null) {
+            return false;
+        }
+
+        char[] normalized = new char[Math.max(title.length(), SHINGLE_LENGTH)];
+        int length = normalizeTitle(title, normalized);
+
+        if (length == 0) {
+            return false;
+        }
+
+        // One permutation hashing - each shingle is hashed once and only updates the minimum
+        // of the signature bucket picked by its top bits. The 16-bit characters of a shingle
+        // are packed into one long, so it's rolled by shifting in the next character.
+        long shingle = 0;
+
+        for (int i = 0; i < length; i++) {
+
+            shingle = (shingle << Character.SIZE) | normalized[i];
+
+            if (i < SHINGLE_LENGTH - 1) {
+                continue;
+            }
+
+            long shingleHash = mix(shingle);
+
+            int bucket = (int) (shingleHash >>> BUCKET_SHIFT);
+            long value = shingleHash & VALUE_MASK;
+
+            if (value < signature[bucket]) {
+                signature[bucket] = value;
+            }
+        }
+
+        // Short titles leave buckets empty, which would make all short titles look alike.
+        // Each empty bucket borrows the value of the next filled one, offset by the distance.
+        for (int bucket = 0; bucket < SIGNATURE_SIZE; bucket++) {
+
+            if (signature[bucket] != Long.MAX_VALUE) {
+                continue;
+            }
+
+            for (int distance = 1; distance < SIGNATURE_SIZE; distance++) {
+
+                long borrowed = signature[(bucket + distance) % SIGNATURE_SIZE];
+
+                if (borrowed != Long.MAX_VALUE && borrowed <= VALUE_MASK) {
+                    signature[bucket] = VALUE_MASK + 1 + (mix(borrowed + distance) & VALUE_MASK);
+                    break;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Lower cases the title and reduces it to letters and digits separated by single spaces,
+    // padded to at least one shingle. Returns the length, or 0 if there are no letters or digits.
+    private static int normalizeTitle(String title, char[] normalized) {
+
+        int length = 0;
+
+        for (int i = 0; i < title.length(); i++) {
+
+            char c = Character.toLowerCase(title.charAt(i));
+
+            if (Character.isLetterOrDigit(c)) {
+                normalized[length++] = c;
+            } else if (length > 0 && normalized[length - 1] != ' ') {
+                normalized[length++] = ' ';
+            }
+        }
+
+        if (length > 0 && normalized[length - 1] == ' ') {
+            length--;
+        }
+
+        if (length == 0) {
+            return 0;
+        }
+
+        // Short titles are padded, so they still have one shingle
+        while (length < SHINGLE_LENGTH) {
+            normalized[length++] = ' ';
+        }
+
+        return length;
+    }
+
+    // Returns the sorted distinct shingles of the title, packed into longs as in the signature
+    private static long[] titleShingles(String title) {
+
+        char[] normalized = new char[Math.max(title.length(), SHINGLE_LENGTH)];
+        int length = normalizeTitle(title, normalized);
+
+        long[] shingles = new long[Math.max(0, length - SHINGLE_LENGTH + 1)];
+        long shingle = 0;
+
+        for (int i = 0; i < length; i++) {
+
+            shingle = (shingle << Character.SIZE) | normalized[i];
+
+            if (i >= SHINGLE_LENGTH - 1) {
+                shingles[i - SHINGLE_LENGTH + 1] = shingle;
+            }
+        }
+
+        Arrays.sort(shingles);
+
+        int distinct = 0;
+
+        for (int i = 0; i < shingles.length; i++) {
+            if (distinct == 0 || shingles[i] != shingles[distinct - 1]) {
+                shingles[distinct++] = shingles[i];
+            }
+        }
+
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    // Returns the Jaccard similarity of two sorted sets of shingles
+    private static float similarity(long[] first, long[] second) {
+
+        int common = 0;
+
+        for (int i = 0, j = 0; i < first.length && j < second.length; ) {
+            if (first[i] == second[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        int union = first.length + second.length - common;
+
+        return union == 0 ? 1 : (float) common / union;
+    }
+
+    /**
+     * Returns the hash of the canonical form of the url - without the scheme, "www." and
+     * "amp." host prefixes, query, fragment and trailing slash, with the host lower cased.
+     */
+    static long canonicalUrlHash(String url) {
+
+        if (url == null) {
+            return 0;
+        }
+
+        int start = url.indexOf("://");
+        start = start == -1 ? 0 : start + 3;
+
+        if (url.regionMatches(true, start, "www.", 0, 4)) {
+            start += 4;
+        } else if (url.regionMatches(true, start, "amp.", 0, 4)) {
+            start += 4;
+        }
+
+        int end = url.length();
+
+        int query = url.indexOf('?', start);
+        if (query != -1) {
+            end = query;
+        }
+
+        int fragment = url.indexOf('#', start);
+        if (fragment != -1 && fragment < end) {
+            end = fragment;
+        }
+
+        while (end > start && url.charAt(end - 1) == '/') {
+            end--;
+        }
+
+        int pathStart = url.indexOf('/', start);
+        if (pathStart == -1 || pathStart > end) {
+            pathStart = end;
+        }
+
+        long hash = FNV_OFFSET;
+
+        for (int i = start; i < end; i++) {
+
+            char c = url.charAt(i);
+
+            // Host names are case insensitive, paths are not
+            if (i < pathStart) {
+                c = Character.toLowerCase(c);
+            }
+
+            hash = (hash ^ c) * FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * Returns the seconds since the epoch for a date in the "yyyy-MM-ddTHH:mm:ssZ" format
+     * used by the Guardian API, or 0 if the date can't be parsed.
+     * Parsed by hand, as {@link java.text.SimpleDateFormat} is too slow for thousands of articles.
+     */
+    static long parseDateSeconds(String date) {
+
+        if (date == null || date.length() < 19) {
+            return 0;
+        }
+
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+        int hour = parseDigits(date, 11, 13);
+        int minute = parseDigits(date, 14, 16);
+        int second = parseDigits(date, 17, 19);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || minute < 0 || second < 0) {
+            return 0;
+        }
+
+        // Days from the civil date, shifting the year start to March to handle the leap days
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097L + dayOfEra - 719468;
+
+        return days * 86400 + hour * 3600 + minute * 60 + second;
+    }
+
+    // Returns the number written with the digits between start and end, or -1 if not a number
+    private static int parseDigits(String text, int start, int end) {
+
+        int value = 0;
+
+        for (int i = start; i < end; i++) {
+
+            char c = text.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    // Final step of the SplitMix64 generator, a cheap and well distributed 64-bit mix
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
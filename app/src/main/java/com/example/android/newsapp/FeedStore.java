@@ -0,0 +1,229 @@
+package com.example.android.newsapp;
+
+import android.content.Context;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk store for the last loaded list of articles of each query, so the feed can be shown again
+ * after the process was killed without fetching it from the network.
+ * Every stored list gets a watermark, the time it was stored at, made unique within the process. The activity only keeps the query
+ * and the watermark in its saved state, instead of parcelling every article, and a list
+ * is only restored if it is still the one the watermark points to.
+ * The articles are stored without their bodies, which are kept within the disk budget of the
+ * {@link ArticleCache} when read ahead, so storing a list writes a few kilobytes per page.
+ */
+class FeedStore {
+
+    /**
+     * Name of the directory (inside the app's cache directory) holding the stored lists
+     */
+    private static final String STORE_DIRECTORY = "feeds";
+
+    private static final String FILE_EXTENSION = ".feed";
+
+    /**
+     * Version of the file format, files of other versions are ignored.
+     * Version 1 also stored the article bodies.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Upper bound for the number of articles in a stored list, larger counts mean a damaged file
+     */
+    private static final int MAX_ARTICLES = 10000;
+
+    /**
+     * Upper bound for the length of a stored field, larger lengths mean a damaged file.
+     * Generous, as a field is never larger than the response it came from.
+     */
+    private static final int MAX_FIELD_BYTES = 16 * 1024 * 1024;
+
+    /** Last watermark given out, so two lists stored in the same millisecond get different ones */
+    private static final AtomicLong sLastWatermark = new AtomicLong();
+
+    /**
+     * Body of the restored articles, the same as of the articles fetched without one
+     */
+    private static final String NO_BODY = "";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Directory the lists are stored in
+     */
+    private final File mDirectory;
+
+    /**
+     * Constructs a new {@link FeedStore}.
+     *
+     * @param directory where the lists are stored
+     */
+    FeedStore(File directory) {
+        mDirectory = directory;
+    }
+
+    /**
+     * Returns the {@link FeedStore} located in the app's cache directory.
+     */
+    static FeedStore from(Context context) {
+        return new FeedStore(new File(context.getCacheDir(), STORE_DIRECTORY));
+    }
+
+    /**
+     * Stores the list of articles loaded for the given query, without their bodies,
+     * replacing the previous one. Returns the watermark of the stored list, or 0 if it could not be written.
+     */
+    long put(String queryKey, final List<News> articles) {
+
+        if (queryKey == null || articles == null) {
+            return 0;
+        }
+
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            return 0;
+        }
+
+        final long watermark = nextWatermark();
+
+        boolean written = CacheFiles.writeAtomically(fileFor(queryKey), new CacheFiles.ContentWriter() {
+            @Override
+            public void writeTo(OutputStream stream) throws IOException {
+
+                DataOutputStream outputStream = new DataOutputStream(stream);
+
+                outputStream.writeInt(FORMAT_VERSION);
+                outputStream.writeLong(watermark);
+                outputStream.writeInt(articles.size());
+
+                for (News article : articles) {
+                    writeString(outputStream, article.getSectionName());
+                    writeString(outputStream, article.getDatePublished());
+                    writeString(outputStream, article.getArticleTitle());
+                    writeString(outputStream, article.getArticleUrl());
+                    writeString(outputStream, article.getArticleAuthor());
+                    writeString(outputStream, article.getTrailText());
+                    writeString(outputStream, article.getThumbnailUrl());
+                }
+
+                outputStream.flush();
+            }
+        });
+
+        if (!written) {
+            return 0;
+        }
+
+        return watermark;
+    }
+
+    /**
+     * Returns the list of articles stored for the given query with the given watermark,
+     * with empty bodies, or null if there is no such list, it has been replaced by a newer one or could not be read.
+     */
+    List<News> get(String queryKey, long watermark) {
+
+        File file = fileFor(queryKey);
+
+        if (watermark == 0 || !file.isFile()) {
+            return null;
+        }
+
+        DataInputStream inputStream = null;
+
+        try {
+
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            if (inputStream.readInt() != FORMAT_VERSION || inputStream.readLong() != watermark) {
+                return null;
+            }
+
+            int count = inputStream.readInt();
+
+            if (count < 0 || count > MAX_ARTICLES) {
+                return null;
+            }
+
+            List<News> articles = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                articles.add(new News(readString(inputStream), readString(inputStream), readString(inputStream),
+                        readString(inputStream), readString(inputStream), readString(inputStream),
+                        readString(inputStream), NO_BODY));
+            }
+
+            return articles;
+
+        } catch (IOException e) {
+
+            return null;
+
+        } finally {
+
+            CacheFiles.closeQuietly(inputStream);
+
+        }
+    }
+
+    // Returns the current time, or one more than the last watermark if that's not later. Never 0,
+    // as that means nothing was stored.
+    private static long nextWatermark() {
+
+        while (true) {
+
+            long last = sLastWatermark.get();
+            long next = Math.max(Math.max(1, System.currentTimeMillis()), last + 1);
+
+            if (sLastWatermark.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Returns the file the list of the given query is stored in
+    private File fileFor(String queryKey) {
+        return new File(mDirectory, CacheFiles.keyFor(queryKey) + FILE_EXTENSION);
+    }
+
+    // Writes the string as its length in bytes followed by the UTF-8 bytes,
+    // as writeUTF is limited to 64 KB and the article bodies can be longer
+    private static void writeString(DataOutputStream outputStream, String value) throws IOException {
+
+        if (value == null) {
+            outputStream.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException {
+
+        int length = inputStream.readInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        if (length < 0 || length > MAX_FIELD_BYTES) {
+            throw new IOException("Damaged feed file");
+        }
+
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.android.newsapp;
+
+/**
+ * Describes how much to fetch from the Guardian API for the estimated quality of the network -
+ * the number of articles per page, the fields requested for each article, the size of the
+ * thumbnails and the number of article bodies read ahead for offline reading.
+ * Slow networks get small pages without the heavy fields, so the list still shows up quickly,
+ * while fast ones get bigger pages with everything needed to read the articles offline.
+ */
+class FetchPolicy {
+
+    /**
+     * Width of the thumbnails returned by the API, and the smaller one also available
+     */
+    static final int THUMBNAIL_WIDTH_FULL = 500;
+    static final int THUMBNAIL_WIDTH_SMALL = 140;
+
+    /**
+     * Thresholds of the network quality tiers
+     */
+    private static final long POOR_BANDWIDTH_KBPS = 150;
+    private static final long POOR_LATENCY_MS = 2000;
+    private static final long MODERATE_BANDWIDTH_KBPS = 600;
+    private static final long MODERATE_LATENCY_MS = 700;
+    private static final long EXCELLENT_BANDWIDTH_KBPS = 5000;
+
+    /**
+     * Fields of the article requested from the API. The title comes with every article anyway.
+     */
+    private static final String FIELDS_TEXT = "byline,trailText";
+    private static final String FIELDS_THUMBNAIL = FIELDS_TEXT + ",thumbnail";
+    private static final String FIELDS_BODY = FIELDS_THUMBNAIL + ",body";
+
+    private static final String THUMBNAIL_FULL_SUFFIX = "/" + THUMBNAIL_WIDTH_FULL + ".jpg";
+
+    /**
+     * Policies for 2G like, 3G like, LTE like and Wi-Fi like networks
+     */
+    static final FetchPolicy POOR = new FetchPolicy(10, FIELDS_TEXT, 0, 0);
+    static final FetchPolicy MODERATE = new FetchPolicy(15, FIELDS_THUMBNAIL, THUMBNAIL_WIDTH_SMALL, 0);
+    static final FetchPolicy GOOD = new FetchPolicy(20, FIELDS_BODY, THUMBNAIL_WIDTH_FULL, 5);
+    static final FetchPolicy EXCELLENT = new FetchPolicy(30, FIELDS_BODY, THUMBNAIL_WIDTH_FULL, 15);
+
+    private final int pageSize;
+
+    private final String fields;
+
+    private final int thumbnailWidth;
+
+    private final int prefetchDepth;
+
+    /**
+     * Constructs a new {@link FetchPolicy}.
+     *
+     * @param pageSize       is the number of articles requested at once
+     * @param fields         is the list of article fields requested
+     * @param thumbnailWidth is the width of the thumbnails, 0 for no thumbnails
+     * @param prefetchDepth  is the number of article bodies read ahead
+     */
+    private FetchPolicy(int pageSize, String fields, int thumbnailWidth, int prefetchDepth) {
+        this.pageSize = pageSize;
+        this.fields = fields;
+        this.thumbnailWidth = thumbnailWidth;
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    /**
+     * Returns the policy for the network quality currently estimated.
+     */
+    static FetchPolicy forNetwork(NetworkQualityEstimator estimator) {
+        return forNetwork(estimator.getLatencyMs(), estimator.getBandwidthKbps());
+    }
+
+    /**
+     * Returns the policy for a network with the given round trip time and bandwidth.
+     */
+    static FetchPolicy forNetwork(long latencyMs, long bandwidthKbps) {
+
+        if (bandwidthKbps < POOR_BANDWIDTH_KBPS || latencyMs > POOR_LATENCY_MS) {
+            return POOR;
+        }
+
+        if (bandwidthKbps < MODERATE_BANDWIDTH_KBPS || latencyMs > MODERATE_LATENCY_MS) {
+            return MODERATE;
+        }
+
+        if (bandwidthKbps < EXCELLENT_BANDWIDTH_KBPS) {
+            return GOOD;
+        }
+
+        return EXCELLENT;
+    }
+
+    /**
+     * Get the number of articles requested at once
+     */
+    int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Get the comma separated list of article fields requested
+     */
+    String getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the width of the thumbnails, 0 if the thumbnails are not requested
+     */
+    int getThumbnailWidth() {
+        return thumbnailWidth;
+    }
+
+    /**
+     * Get the number of article bodies read ahead for offline reading
+     */
+    int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Returns the url of the thumbnail in the width of this policy. The Guardian media server
+     * keeps each image in several widths, differing only in the file name.
+     */
+    String thumbnailUrl(String url) {
+
+        if (thumbnailWidth == 0 || thumbnailWidth == THUMBNAIL_WIDTH_FULL || url == null
+                || !url.endsWith(THUMBNAIL_FULL_SUFFIX)) {
+            return url;
+        }
+
+        return url.substring(0, url.length() - THUMBNAIL_FULL_SUFFIX.length()) + "/" + thumbnailWidth + ".jpg";
+    }
+}
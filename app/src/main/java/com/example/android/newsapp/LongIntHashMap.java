@@ -0,0 +1,229 @@
+package com.example.android.newsapp;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to primitive int values.
+ * Used on hot paths where boxing every key into a {@link Long} would dominate the cost,
+ * e.g. when deduplicating thousands of articles by their hashes.
+ */
+class LongIntHashMap {
+
+    /** Load factor above which the table is doubled */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /** Key marking an empty slot, the real zero key is kept aside */
+    private static final long EMPTY = 0L;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private int mMask;
+    private int mSize;
+
+    private boolean mHasZeroKey;
+    private int mZeroValue;
+
+    /**
+     * Constructs a new {@link LongIntHashMap} able to hold the expected number of keys
+     * without resizing.
+     *
+     * @param expectedSize is the expected number of keys
+     */
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     */
+    int size() {
+        return mSize + (mHasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Returns the value for the given key, or missingValue if the key is not present.
+     */
+    int get(long key, int missingValue) {
+
+        if (key == EMPTY) {
+            return mHasZeroKey ? mZeroValue : missingValue;
+        }
+
+        int slot = slotFor(key);
+
+        while (mKeys[slot] != EMPTY) {
+
+            if (mKeys[slot] == key) {
+                return mValues[slot];
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        return missingValue;
+    }
+
+    /**
+     * Associates the value with the key only if the key is not present yet.
+     * Returns true if the value has been added.
+     */
+    boolean putIfAbsent(long key, int value) {
+
+        if (key == EMPTY) {
+
+            if (mHasZeroKey) {
+                return false;
+            }
+
+            mHasZeroKey = true;
+            mZeroValue = value;
+            return true;
+        }
+
+        int slot = slotFor(key);
+
+        while (mKeys[slot] != EMPTY) {
+
+            if (mKeys[slot] == key) {
+                return false;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value;
+
+        if (++mSize > mKeys.length * LOAD_FACTOR) {
+            resize();
+        }
+
+        return true;
+    }
+
+    /**
+     * Associates the value with the key, replacing the value present before.
+     * Returns the replaced value, or missingValue if the key was not present.
+     */
+    int put(long key, int value, int missingValue) {
+
+        if (key == EMPTY) {
+
+            int previous = mHasZeroKey ? mZeroValue : missingValue;
+            mHasZeroKey = true;
+            mZeroValue = value;
+            return previous;
+        }
+
+        int slot = slotFor(key);
+
+        while (mKeys[slot] != EMPTY) {
+
+            if (mKeys[slot] == key) {
+                int previous = mValues[slot];
+                mValues[slot] = value;
+                return previous;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value;
+
+        if (++mSize > mKeys.length * LOAD_FACTOR) {
+            resize();
+        }
+
+        return missingValue;
+    }
+
+    /**
+     * Removes the key from the map. Returns true if it was present.
+     */
+    boolean remove(long key) {
+
+        if (key == EMPTY) {
+            boolean present = mHasZeroKey;
+            mHasZeroKey = false;
+            return present;
+        }
+
+        int slot = slotFor(key);
+
+        while (mKeys[slot] != key) {
+
+            if (mKeys[slot] == EMPTY) {
+                return false;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        // Shifting the following keys of the run back into the gap, so every key stays
+        // reachable from its home slot without any deleted markers
+        int gap = slot;
+        int next = (gap + 1) & mMask;
+
+        while (mKeys[next] != EMPTY) {
+
+            int home = slotFor(mKeys[next]);
+
+            if (((next - home) & mMask) >= ((next - gap) & mMask)) {
+                mKeys[gap] = mKeys[next];
+                mValues[gap] = mValues[next];
+                gap = next;
+            }
+
+            next = (next + 1) & mMask;
+        }
+
+        mKeys[gap] = EMPTY;
+        mSize--;
+        return true;
+    }
+
+    /**
+     * Removes all keys, keeping the allocated table for reuse.
+     */
+    void clear() {
+        Arrays.fill(mKeys, EMPTY);
+        mSize = 0;
+        mHasZeroKey = false;
+    }
+
+    private void resize() {
+
+        long[] oldKeys = mKeys;
+        int[] oldValues = mValues;
+
+        mKeys = new long[oldKeys.length * 2];
+        mValues = new int[oldValues.length * 2];
+        mMask = mKeys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+
+            int slot = slotFor(oldKeys[i]);
+
+            while (mKeys[slot] != EMPTY) {
+                slot = (slot + 1) & mMask;
+            }
+
+            mKeys[slot] = oldKeys[i];
+            mValues[slot] = oldValues[i];
+        }
+    }
+
+    // Spreads the key bits, so keys differing only in the high bits don't cluster
+    private int slotFor(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+}
@@ -2,34 +2,90 @@ package com.example.android.newsapp;
 
 import android.app.LoaderManager;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.Loader;
+import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.preference.PreferenceManager;
+import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
+import android.telephony.TelephonyManager;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ListView;
 import android.widget.TextView;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-public class MainActivity extends AppCompatActivity implements LoaderManager.LoaderCallbacks<List<News>> {
+public class MainActivity extends AppCompatActivity implements LoaderManager.LoaderCallbacks<List<News>>,
+        ReadAheadTask.Callback {
 
     /**
      * URL for news data from the the Guardian dataset
      */
     private static final String GUARDIAN_REQUEST_URL =
-            "http://content.guardianapis.com/search?from-date=2018-03-01&order-by=newest&use-date=published&show-tags=contributor&show-fields=all&page-size=20&q=news%20AND%20Poland&api-key=test";
+            "http://content.guardianapis.com/search?from-date=2018-03-01&order-by=newest&use-date=published&show-tags=contributor&q=news%20AND%20Poland&api-key=test";
+
+    /**
+     * Query parameters set by the {@link FetchPolicy}
+     */
+    private static final String PARAM_PAGE_SIZE = "page-size";
+    private static final String PARAM_SHOW_FIELDS = "show-fields";
 
     /**
      * Constant value for the article loader ID.
      */
     private static final int NEWS_LOADER_ID = 1;
 
+    /**
+     * Keys of the saved feed state. Only the query, the watermark of the stored list and
+     * the scroll position are saved, the articles themselves are kept in the {@link FeedStore}.
+     */
+    private static final String STATE_QUERY = "feed_query";
+    private static final String STATE_WATERMARK = "feed_watermark";
+    private static final String STATE_FIRST_POSITION = "feed_first_position";
+    private static final String STATE_TOP_OFFSET = "feed_top_offset";
+    private static final String STATE_SECTION = "feed_section";
+    private static final String STATE_READ_AHEAD_WATERMARK = "read_ahead_watermark";
+    private static final String STATE_READ_AHEAD_URLS = "read_ahead_urls";
+
+    /**
+     * Preference for the read-ahead mode - when enabled, the bodies of the top articles are stored
+     * on disk, so they open instantly in the in-app reader, even offline. The number of articles
+     * read ahead depends on the network quality, see {@link FetchPolicy}.
+     */
+    private static final String PREF_READ_AHEAD = "read_ahead";
+    private static final boolean PREF_READ_AHEAD_DEFAULT = true;
+
+    /**
+     * Number of list rows inflated in the background while the articles are loading
+     */
+    private static final int PRE_INFLATED_ROWS = 3;
+
+    /**
+     * Orders the articles of a section newest first. The dates are in ISO 8601, so they compare as text.
+     */
+    private static final Comparator<News> NEWEST_FIRST = new Comparator<News>() {
+        @Override
+        public int compare(News first, News second) {
+            String firstDate = first.getDatePublished() == null ? "" : first.getDatePublished();
+            String secondDate = second.getDatePublished() == null ? "" : second.getDatePublished();
+            return secondDate.compareTo(firstDate);
+        }
+    };
+
     /**
      * Adapter for the list of articles
      */
@@ -40,27 +96,121 @@ public class MainActivity extends AppCompatActivity implements LoaderManager.Loa
      */
     private TextView mEmptyList;
 
+    /**
+     * List of articles
+     */
+    private ListView mArticleListView;
+
+    /**
+     * Articles of the feed as loaded, shown when no section is picked
+     */
+    private List<News> mArticles = Collections.emptyList();
+
+    /**
+     * Section picked by the user, or null to show the whole feed. The articles of a section
+     * are the ones kept by the {@link SectionedArticleStore}, from every list loaded so far.
+     */
+    private String mSection;
+
+    /**
+     * Store for the article bodies read ahead
+     */
+    private ArticleCache mArticleCache;
+
+    /**
+     * Urls of the articles whose bodies are stored, so a click doesn't touch the disk
+     */
+    private final Set<String> mReadAheadUrls = new HashSet<>();
+
+    /**
+     * Watermark of the stored list that has been read ahead, so the list delivered again,
+     * e.g. after a rotation, isn't read ahead once more. 0 if none.
+     */
+    private long mReadAheadWatermark;
+
+    /**
+     * Watermark of the list the running read-ahead task got
+     */
+    private long mPendingReadAheadWatermark;
+
+    /**
+     * App preferences, holding the read-ahead mode
+     */
+    private SharedPreferences mPreferences;
+
+    /**
+     * Store for the loaded lists of articles
+     */
+    private FeedStore mFeedStore;
+
+    /**
+     * Watermark of the list of articles shown, 0 if it isn't stored
+     */
+    private long mWatermark;
+
+    /**
+     * Watermark of the stored list to show again, 0 to load the articles from the network
+     */
+    private long mRestoreWatermark;
+
+    /**
+     * Scroll position to restore once the stored list is shown, -1 for none
+     */
+    private int mRestorePosition = -1;
+    private int mRestoreTopOffset;
+
+    /**
+     * True if there was a network connection when the articles started loading
+     */
+    private boolean mConnected;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        mArticleCache = ArticleCache.from(this);
+        mPreferences = PreferenceManager.getDefaultSharedPreferences(this);
+        mFeedStore = FeedStore.from(this);
+
+        // The process may have been killed since the feed was shown, restore it from the store
+        if (savedInstanceState != null
+                && GUARDIAN_REQUEST_URL.equals(savedInstanceState.getString(STATE_QUERY))) {
+            mRestoreWatermark = savedInstanceState.getLong(STATE_WATERMARK);
+            mRestorePosition = savedInstanceState.getInt(STATE_FIRST_POSITION, -1);
+            mRestoreTopOffset = savedInstanceState.getInt(STATE_TOP_OFFSET);
+        }
+
+        if (savedInstanceState != null) {
+            mSection = savedInstanceState.getString(STATE_SECTION);
+            mReadAheadWatermark = savedInstanceState.getLong(STATE_READ_AHEAD_WATERMARK);
+
+            List<String> readAheadUrls = savedInstanceState.getStringArrayList(STATE_READ_AHEAD_URLS);
+
+            if (readAheadUrls != null) {
+                mReadAheadUrls.addAll(readAheadUrls);
+            }
+        }
+
         // Find a reference to the {@link ListView} in the layout
-        ListView articleListView = findViewById(R.id.list);
+        mArticleListView = findViewById(R.id.list);
 
         mEmptyList = findViewById(R.id.no_content);
-        articleListView.setEmptyView(mEmptyList);
+        mArticleListView.setEmptyView(mEmptyList);
 
         // Create a new adapter that takes an empty list of articles as input
         mAdapter = new NewsAdapter(this, new ArrayList<News>());
 
         // Set the adapter on the {@link ListView}
         // so the list can be populated in the user interface
-        articleListView.setAdapter(mAdapter);
+        mArticleListView.setAdapter(mAdapter);
+
+        // Inflate the first rows while waiting for the articles
+        mAdapter.preInflate(mArticleListView, PRE_INFLATED_ROWS);
 
         // Set an item click listener on the ListView, which sends an intent to a web browser
         // to open a website with more information about the selected article.
-        articleListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        mArticleListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
             public void onItemClick(AdapterView<?> adapterView, View view, int position, long l) {
                 // Find the current article that was clicked on
@@ -68,6 +218,12 @@ public class MainActivity extends AppCompatActivity implements LoaderManager.Loa
 
                 if (currentArticle != null) {
 
+                    // The article has been read ahead, so open it in the in-app reader
+                    if (isReadAheadEnabled() && mReadAheadUrls.contains(currentArticle.getArticleUrl())) {
+                        startActivity(ArticleActivity.newIntent(MainActivity.this, currentArticle));
+                        return;
+                    }
+
                     // Convert the String URL into a URI object (to pass into the Intent constructor)
                     Uri articleUri = Uri.parse(currentArticle.getArticleUrl());
 
@@ -95,8 +251,17 @@ public class MainActivity extends AppCompatActivity implements LoaderManager.Loa
             // Get details on the currently active default data network
             NetworkInfo networkInfo = cm.getActiveNetworkInfo();
 
-            // If there is a network connection, fetch data
-            if (networkInfo != null && networkInfo.isConnected()) {
+            boolean connected = networkInfo != null && networkInfo.isConnected();
+            mConnected = connected;
+
+            if (connected) {
+                // Until some requests are measured, guess the network quality from the connection type
+                seedNetworkQuality(networkInfo);
+            }
+
+            // If there is a network connection, or the stored articles are restored, fetch data
+            if (connected || mRestoreWatermark != 0) {
+
                 // Get a reference to the LoaderManager, in order to interact with loaders.
                 LoaderManager lm = getLoaderManager();
 
@@ -116,10 +281,56 @@ public class MainActivity extends AppCompatActivity implements LoaderManager.Loa
         }
     }
 
+    // Seeds the network quality estimate with the typical latency and bandwidth of the connection
+    private void seedNetworkQuality(NetworkInfo networkInfo) {
+
+        NetworkQualityEstimator estimator = NetworkQualityEstimator.getInstance();
+
+        // The measurements of another connection are dropped, e.g. when coming back on EDGE after Wi-Fi
+        int type = networkInfo.getType();
+        int subtype = networkInfo.getSubtype();
+
+        if (type != ConnectivityManager.TYPE_MOBILE) {
+            // Wi-Fi, Ethernet and the like
+            estimator.seed(type, subtype, 50, 10000);
+            return;
+        }
+
+        switch (subtype) {
+            case TelephonyManager.NETWORK_TYPE_GPRS:
+            case TelephonyManager.NETWORK_TYPE_EDGE:
+            case TelephonyManager.NETWORK_TYPE_CDMA:
+            case TelephonyManager.NETWORK_TYPE_1xRTT:
+            case TelephonyManager.NETWORK_TYPE_IDEN:
+                estimator.seed(type, subtype, 1500, 80);
+                break;
+            case TelephonyManager.NETWORK_TYPE_LTE:
+                estimator.seed(type, subtype, 100, 3000);
+                break;
+            default:
+                // 3G and everything unknown
+                estimator.seed(type, subtype, 400, 500);
+                break;
+        }
+    }
+
     @Override
     public Loader<List<News>> onCreateLoader(int i, Bundle bundle) {
+        // Pick the amount of data to fetch for the estimated network quality
+        FetchPolicy policy = FetchPolicy.forNetwork(NetworkQualityEstimator.getInstance());
+
+        String requestUrl = Uri.parse(GUARDIAN_REQUEST_URL).buildUpon()
+                .appendQueryParameter(PARAM_PAGE_SIZE, String.valueOf(policy.getPageSize()))
+                .appendQueryParameter(PARAM_SHOW_FIELDS, policy.getFields())
+                .build()
+                .toString();
+
         // Create a new loader for the given URL
-        return new NewsLoader(this, GUARDIAN_REQUEST_URL);
+        // The articles are stored under the query without the policy parameters,
+        // so they're found again even if the network quality changed in the meantime
+        // Offline, only the stored articles can be shown, there's no point in a request
+        return new NewsLoader(this, requestUrl, policy, mFeedStore, GUARDIAN_REQUEST_URL, mRestoreWatermark,
+                !mConnected);
     }
 
     @Override
@@ -129,22 +340,156 @@ public class MainActivity extends AppCompatActivity implements LoaderManager.Loa
         View loadingIndicator = findViewById(R.id.loading_indicator);
         loadingIndicator.setVisibility(View.GONE);
 
-        // Set empty state text to display "No articles found."
-        mEmptyList.setText(getResources().getString(R.string.no_articles));
+        // Set empty state text to display "No articles found.", or the connection error
+        // if the stored articles are gone and there was no network to fetch them
+        if (((NewsLoader) loader).isRestoreOnly()) {
+            mEmptyList.setText(getResources().getString(R.string.no_connection));
+        } else {
+            mEmptyList.setText(getResources().getString(R.string.no_articles));
+        }
+
+        // Show the loaded articles, or the picked section with the articles just loaded
+        mArticles = articles == null ? Collections.<News>emptyList() : articles;
+        showArticles();
+
+        if (!mArticles.isEmpty()) {
+            mWatermark = ((NewsLoader) loader).getWatermark();
+
+            // Scroll back to where the user was, if this is the list they were looking at
+            if (mRestorePosition >= 0 && mWatermark == mRestoreWatermark) {
+                mArticleListView.setSelectionFromTop(Math.min(mRestorePosition, mAdapter.getCount() - 1), mRestoreTopOffset);
+            }
+
+            mRestorePosition = -1;
+
+            // Store the bodies of the top articles in the background for offline reading,
+            // as many as the policy the loader was created with allows
+            int prefetchDepth = ((NewsLoader) loader).getPolicy().getPrefetchDepth();
+
+            // Run even with nothing to store, to find the bodies stored before, but only once
+            // per stored list. The tasks run one at a time, as they may write the same files.
+            if (isReadAheadEnabled() && (mWatermark == 0 || mWatermark != mReadAheadWatermark)) {
+                mPendingReadAheadWatermark = mWatermark;
+                new ReadAheadTask(mArticleCache, prefetchDepth, this)
+                        .executeOnExecutor(AsyncTask.SERIAL_EXECUTOR, articles.toArray(new News[articles.size()]));
+            }
+        }
+    }
+
+    // Fills the list with the feed, or with the articles of the picked section
+    private void showArticles() {
+
+        // The section may be gone, e.g. after the process was killed only the restored list is kept
+        if (mSection != null && SectionedArticleStore.getInstance().size(mSection) == 0) {
+            mSection = null;
+        }
 
         // Clear the adapter of previous article data
         mAdapter.clear();
 
-        // If there is a valid list of {@link News}s, then add them to the adapter's
-        // data set. This will trigger the ListView to update.
-        if (articles != null && !articles.isEmpty()) {
-            mAdapter.addAll(articles);
+        if (mSection == null) {
+            setTitle(R.string.app_name);
+            mAdapter.addAll(mArticles);
+            return;
         }
+
+        List<News> articles = new ArrayList<>(SectionedArticleStore.getInstance().snapshot(mSection));
+        Collections.sort(articles, NEWEST_FIRST);
+
+        setTitle(mSection);
+        mAdapter.addAll(articles);
+    }
+
+    // Lets the user pick the section to show, or the whole feed
+    private void showSectionPicker() {
+
+        List<String> sections = SectionedArticleStore.getInstance().sections();
+        sections.remove(SectionedArticleStore.NO_SECTION);
+        Collections.sort(sections);
+
+        final String[] choices = new String[sections.size() + 1];
+        choices[0] = getString(R.string.all_sections);
+
+        for (int i = 0; i < sections.size(); i++) {
+            choices[i + 1] = sections.get(i);
+        }
+
+        int checked = mSection == null ? 0 : sections.indexOf(mSection) + 1;
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.sections)
+                .setSingleChoiceItems(choices, checked, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        mSection = which == 0 ? null : choices[which];
+                        showArticles();
+                        mArticleListView.setSelection(0);
+                        dialog.dismiss();
+                    }
+                })
+                .show();
+    }
+
+    @Override
+    public void onArticlesReadAhead(List<String> articleUrls) {
+        mReadAheadUrls.addAll(articleUrls);
+        mReadAheadWatermark = mPendingReadAheadWatermark;
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.main, menu);
+        menu.findItem(R.id.action_read_ahead).setChecked(isReadAheadEnabled());
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+
+        if (item.getItemId() == R.id.action_sections) {
+            showSectionPicker();
+            return true;
+        }
+
+        if (item.getItemId() == R.id.action_read_ahead) {
+            boolean enabled = !item.isChecked();
+            item.setChecked(enabled);
+            mPreferences.edit().putBoolean(PREF_READ_AHEAD, enabled).apply();
+            return true;
+        }
+
+        return super.onOptionsItemSelected(item);
+    }
+
+    private boolean isReadAheadEnabled() {
+        return mPreferences.getBoolean(PREF_READ_AHEAD, PREF_READ_AHEAD_DEFAULT);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+
+        outState.putString(STATE_SECTION, mSection);
+        outState.putLong(STATE_READ_AHEAD_WATERMARK, mReadAheadWatermark);
+        outState.putStringArrayList(STATE_READ_AHEAD_URLS, new ArrayList<>(mReadAheadUrls));
+
+        // Nothing to restore without a stored list
+        if (mWatermark == 0) {
+            return;
+        }
+
+        View firstRow = mArticleListView.getChildAt(0);
+
+        outState.putString(STATE_QUERY, GUARDIAN_REQUEST_URL);
+        outState.putLong(STATE_WATERMARK, mWatermark);
+        outState.putInt(STATE_FIRST_POSITION, mArticleListView.getFirstVisiblePosition());
+        outState.putInt(STATE_TOP_OFFSET, firstRow == null ? 0 : firstRow.getTop() - mArticleListView.getPaddingTop());
     }
 
     @Override
     public void onLoaderReset(Loader<List<News>> loader) {
         // Loader reset, so we can clear out our existing data.
+        mArticles = Collections.emptyList();
         mAdapter.clear();
     }
 }
@@ -0,0 +1,154 @@
+package com.example.android.newsapp;
+
+/**
+ * Estimates the latency and bandwidth of the current network from the timings
+ * of the recent requests, as exponentially weighted moving averages. The bandwidth is
+ * averaged in the log domain, since it spans orders of magnitude between 2G and Wi-Fi
+ * and a linear average would take too many requests to drop after a network change.
+ * Until the first request completes, the estimate is the one seeded from the type
+ * of the connection. The measurements are only kept while the connection stays of the same
+ * type, a new type of connection starts again from its seed. Timings are passed in, so the estimator can be fed by a simulated
+ * network in tests.
+ */
+class NetworkQualityEstimator {
+
+    /**
+     * Weight of the newest sample in the moving averages
+     */
+    private static final double SAMPLE_WEIGHT = 0.5;
+
+    /**
+     * Responses smaller than this are dominated by the latency,
+     * so they don't tell anything about the bandwidth
+     */
+    static final long MIN_BANDWIDTH_SAMPLE_BYTES = 8 * 1024;
+
+    /**
+     * Estimate used before anything is known about the network
+     */
+    private static final long DEFAULT_LATENCY_MS = 300;
+    private static final long DEFAULT_BANDWIDTH_KBPS = 1000;
+
+    /**
+     * Connection type before any seed
+     */
+    private static final int NO_CONNECTION = -1;
+
+    /** Estimator shared by all the requests of the app */
+    private static final NetworkQualityEstimator sInstance = new NetworkQualityEstimator();
+
+    private double mLatencyMs = DEFAULT_LATENCY_MS;
+    private double mLogBandwidthKbps = Math.log(DEFAULT_BANDWIDTH_KBPS);
+
+    private boolean mHasLatencySample;
+    private boolean mHasBandwidthSample;
+
+    /** Type and subtype of the connection the estimate was seeded for */
+    private int mConnectionType = NO_CONNECTION;
+    private int mConnectionSubtype = NO_CONNECTION;
+
+    /**
+     * Returns the estimator shared by all the requests of the app.
+     */
+    static NetworkQualityEstimator getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Sets the estimate expected for the type of the connection. On the connection the
+     * estimate was seeded for before, the values already measured are kept, since a measurement
+     * is a better estimate than the connection type. On another connection, e.g. after moving
+     * from Wi-Fi to EDGE, the measurements are dropped, as they tell nothing about the new one.
+     *
+     * @param connectionType    is the type of the connection, e.g. ConnectivityManager.TYPE_WIFI
+     * @param connectionSubtype is the subtype of the connection, e.g. TelephonyManager.NETWORK_TYPE_EDGE
+     * @param latencyMs         is the expected round trip time in milliseconds
+     * @param bandwidthKbps     is the expected bandwidth in kilobits per second
+     */
+    synchronized void seed(int connectionType, int connectionSubtype, long latencyMs, long bandwidthKbps) {
+
+        if (connectionType != mConnectionType || connectionSubtype != mConnectionSubtype) {
+            mConnectionType = connectionType;
+            mConnectionSubtype = connectionSubtype;
+            mHasLatencySample = false;
+            mHasBandwidthSample = false;
+        }
+
+        if (!mHasLatencySample) {
+            mLatencyMs = latencyMs;
+        }
+
+        if (!mHasBandwidthSample) {
+            mLogBandwidthKbps = Math.log(Math.max(1, bandwidthKbps));
+        }
+    }
+
+    /**
+     * Adds the timings of a completed request to the estimate.
+     *
+     * @param latencyMs  is the time from sending the request until the response headers arrived
+     * @param bytes      is the size of the response body
+     * @param transferMs is the time it took to read the response body
+     */
+    synchronized void onRequestCompleted(long latencyMs, long bytes, long transferMs) {
+
+        mLatencyMs = average(mLatencyMs, latencyMs, mHasLatencySample);
+        mHasLatencySample = true;
+
+        if (bytes < MIN_BANDWIDTH_SAMPLE_BYTES) {
+            return;
+        }
+
+        // A body read faster than the clock resolution is counted as read in a millisecond
+        double bandwidthKbps = bytes * 8.0 / Math.max(1, transferMs);
+
+        mLogBandwidthKbps = average(mLogBandwidthKbps, Math.log(bandwidthKbps), mHasBandwidthSample);
+        mHasBandwidthSample = true;
+    }
+
+    /**
+     * Adds a request that failed without a response to the estimate. The time until a request
+     * timed out is counted as its latency, so a network degrading until the requests time out
+     * lowers the estimate instead of keeping the last one. Other failures are ignored: an unknown
+     * host or a refused connection fails within milliseconds, which tells nothing about the speed
+     * of the network and would only raise the estimate.
+     *
+     * @param elapsedMs is the time from sending the request until it failed
+     * @param timedOut  is true if no response arrived in time
+     */
+    synchronized void onRequestFailed(long elapsedMs, boolean timedOut) {
+
+        if (!timedOut) {
+            return;
+        }
+
+        mLatencyMs = average(mLatencyMs, elapsedMs, mHasLatencySample);
+        mHasLatencySample = true;
+    }
+
+    /**
+     * Returns the estimated round trip time in milliseconds.
+     */
+    synchronized long getLatencyMs() {
+        return Math.round(mLatencyMs);
+    }
+
+    /**
+     * Returns the estimated bandwidth in kilobits per second.
+     */
+    synchronized long getBandwidthKbps() {
+        return Math.round(Math.exp(mLogBandwidthKbps));
+    }
+
+    /**
+     * Returns true if the estimate is based on at least one completed request.
+     */
+    synchronized boolean hasSamples() {
+        return mHasLatencySample;
+    }
+
+    // The first measurement replaces the seeded estimate instead of being averaged with it
+    private static double average(double current, double sample, boolean hasSamples) {
+        return hasSamples ? current + SAMPLE_WEIGHT * (sample - current) : sample;
+    }
+}
@@ -33,6 +33,8 @@ public class News implements Parcelable {
 
     private final String thumbnailUrl;
 
+    private final String articleBody;
+
     /**
      * Constructs a new {@link News} object.
      *
@@ -43,8 +45,9 @@ public class News implements Parcelable {
      * @param articleAuthor is the name of the article's author
      * @param trailText     is the name of the sneak peak text
      * @param thumbnailUrl  is the web address of the thumbnail image
+     * @param articleBody   is the HTML body of the article
      */
-    News(String sectionName, String datePublished, String articleTitle, String articleUrl, String articleAuthor, String trailText, String thumbnailUrl) {
+    News(String sectionName, String datePublished, String articleTitle, String articleUrl, String articleAuthor, String trailText, String thumbnailUrl, String articleBody) {
 
         this.sectionName = sectionName;
         this.datePublished = datePublished;
@@ -53,6 +56,7 @@ public class News implements Parcelable {
         this.articleAuthor = articleAuthor;
         this.trailText = trailText;
         this.thumbnailUrl = thumbnailUrl;
+        this.articleBody = articleBody;
 
     }
 
@@ -66,6 +70,7 @@ public class News implements Parcelable {
         articleAuthor = parcel.readString();
         trailText = parcel.readString();
         thumbnailUrl = parcel.readString();
+        articleBody = parcel.readString();
 
     }
 
@@ -118,6 +123,13 @@ public class News implements Parcelable {
         return thumbnailUrl;
     }
 
+    /**
+     * Get the HTML body of the article
+     */
+    public String getArticleBody() {
+        return articleBody;
+    }
+
     //write the values to parcel for storage
     public void writeToParcel(Parcel dest, int flags) {
 
@@ -128,6 +140,7 @@ public class News implements Parcelable {
         dest.writeString(articleAuthor);
         dest.writeString(trailText);
         dest.writeString(thumbnailUrl);
+        dest.writeString(articleBody);
 
     }
 
@@ -5,6 +5,8 @@ import android.content.Context;
 import android.graphics.Typeface;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.v4.content.res.ResourcesCompat;
+import android.support.v4.view.AsyncLayoutInflater;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -18,6 +20,7 @@ import android.widget.TextView;
 import com.squareup.picasso.Picasso;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
 import java.util.List;
 
@@ -31,6 +34,26 @@ class NewsAdapter extends ArrayAdapter<News> {
 
     private static final String TITLE_SEPARATOR = "\\| ";
 
+    /**
+     * Custom fonts of the list item, resolved once and shared by all the rows
+     */
+    private static Typeface sKomika;
+    private static Typeface sKreon;
+
+    /**
+     * Row views inflated ahead of time, used before inflating new ones
+     */
+    private final ArrayDeque<View> mRowPool = new ArrayDeque<>();
+
+    /**
+     * Strings and date formats used on every bind, looked up once
+     */
+    private final String mWrittenBy;
+    private final String mPublishedOn;
+    private final String mDots;
+    private final SimpleDateFormat mInputDateFormat;
+    private final SimpleDateFormat mOutputDateFormat;
+
     /**
      * Constructs a new {@link NewsAdapter}.
      *
@@ -39,6 +62,39 @@ class NewsAdapter extends ArrayAdapter<News> {
      */
     NewsAdapter(Context context, List<News> articles) {
         super(context, 0, articles);
+
+        if (sKomika == null) {
+            sKomika = ResourcesCompat.getFont(context, R.font.komika);
+            sKreon = ResourcesCompat.getFont(context, R.font.kreon_regular);
+        }
+
+        mWrittenBy = context.getResources().getString(R.string.writtenBy);
+        mPublishedOn = context.getResources().getString(R.string.publishedOn);
+        mDots = context.getResources().getString(R.string.dots);
+        mInputDateFormat = new SimpleDateFormat(context.getResources().getString(R.string.input_format), java.util.Locale.getDefault());
+        mOutputDateFormat = new SimpleDateFormat(context.getResources().getString(R.string.output_format), java.util.Locale.getDefault());
+    }
+
+    /**
+     * Inflates the given number of row views on a background thread, so the first
+     * rows of the list don't have to be inflated on the UI thread once the data arrives.
+     *
+     * @param parent is the list the rows are going to be displayed in
+     * @param count  is the number of rows to inflate
+     */
+    void preInflate(ViewGroup parent, int count) {
+
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(getContext());
+
+        for (int i = 0; i < count; i++) {
+            inflater.inflate(R.layout.news_list_item, parent, new AsyncLayoutInflater.OnInflateFinishedListener() {
+                @Override
+                public void onInflateFinished(@NonNull View view, int resid, ViewGroup parent) {
+                    // This is on the UI thread again
+                    mRowPool.add(createRow(view));
+                }
+            });
+        }
     }
 
     /**
@@ -50,32 +106,18 @@ class NewsAdapter extends ArrayAdapter<News> {
     @Override
     public View getView(int position, View convertView, @NonNull ViewGroup parent) {
 
-        ViewHolder holder;
-
+        // Check if there is an existing list item view (called convertView) that we can reuse,
+        // otherwise take one inflated ahead of time or, if there's none left, inflate a new one.
         if (convertView == null) {
 
-            convertView = LayoutInflater.from(getContext()).inflate(R.layout.news_list_item, null);
-            holder = new ViewHolder();
-
-            holder.articleTitle = convertView.findViewById(R.id.title);
-            holder.articleCategory = convertView.findViewById(R.id.category);
-            holder.articleAuthor = convertView.findViewById(R.id.author);
-            holder.articleDate = convertView.findViewById(R.id.date);
-            holder.trailText = convertView.findViewById(R.id.trailText);
-            holder.readMore = convertView.findViewById(R.id.readMore);
-            holder.thumbnail = convertView.findViewById(R.id.thumbnail);
-
-            convertView.setTag(holder);
-
-        } else {
-
-            holder = (ViewHolder) convertView.getTag();
+            convertView = mRowPool.poll();
 
+            if (convertView == null) {
+                convertView = newRow(parent);
+            }
         }
 
-        // Check if there is an existing list item view (called convertView) that we can reuse,
-        // otherwise, if convertView is null, then inflate a new list item layout.
-
+        ViewHolder holder = (ViewHolder) convertView.getTag();
 
         // Find the article at the given position in the list of articles
         News article = getItem(position);
@@ -99,30 +141,24 @@ class NewsAdapter extends ArrayAdapter<News> {
             }
 
             // Setting the title field
-            holder.articleTitle.setTypeface(null, Typeface.BOLD);
             holder.articleTitle.setText(slimTitle);
 
             // Setting the category field
-            holder.articleCategory.setTypeface(null, Typeface.BOLD + Typeface.ITALIC);
             holder.articleCategory.setText(article.getSectionName());
 
             // Setting the author name field
-            String formattedAuthor = (convertView.getResources().getString(R.string.writtenBy) + article.getArticleAuthor());
+            String formattedAuthor = (mWrittenBy + article.getArticleAuthor());
             holder.articleAuthor.setText(formattedAuthor);
 
             // Setting the date field
             String date = article.getDatePublished();
-            String dateFormatted = (convertView.getResources().getString(R.string.publishedOn) + formattedDate(date));
+            String dateFormatted = (mPublishedOn + formattedDate(date));
             holder.articleDate.setText(dateFormatted);
 
             // Setting the trail text field
-            String formattedTrailText = (article.getTrailText()) + convertView.getResources().getString(R.string.dots);
+            String formattedTrailText = (article.getTrailText()) + mDots;
             holder.trailText.setText(formattedTrailText);
 
-            // Setting read more TextView with slight animation
-            holder.readMore.setText(R.string.readMore);
-            setReadMoreAnimation(holder.readMore);
-
             // Using the Picasso plugin to set the proper thumbnail with given url
             Picasso.get().load(article.getThumbnailUrl()).into(holder.thumbnail);
 
@@ -133,6 +169,40 @@ class NewsAdapter extends ArrayAdapter<News> {
 
     }
 
+    /**
+     * Inflates a new row view for the given list, ready to be passed to getView as convertView.
+     */
+    View newRow(ViewGroup parent) {
+        return createRow(LayoutInflater.from(getContext()).inflate(R.layout.news_list_item, parent, false));
+    }
+
+    // Finds the row's views, sets the shared fonts and the read more animation.
+    // Everything here is the same for every article, so it's done once per row, not on every bind.
+    private View createRow(View row) {
+
+        ViewHolder holder = new ViewHolder();
+
+        holder.articleTitle = row.findViewById(R.id.title);
+        holder.articleCategory = row.findViewById(R.id.category);
+        holder.articleAuthor = row.findViewById(R.id.author);
+        holder.articleDate = row.findViewById(R.id.date);
+        holder.trailText = row.findViewById(R.id.trailText);
+        holder.readMore = row.findViewById(R.id.readMore);
+        holder.thumbnail = row.findViewById(R.id.thumbnail);
+
+        holder.articleAuthor.setTypeface(sKomika);
+        holder.articleDate.setTypeface(sKomika);
+        holder.readMore.setTypeface(sKomika);
+        holder.trailText.setTypeface(sKreon);
+
+        // Setting read more TextView with slight animation
+        setReadMoreAnimation(holder.readMore);
+
+        row.setTag(holder);
+
+        return row;
+    }
+
     // This method set the animation for read more TextView
     private void setReadMoreAnimation(TextView textView) {
 
@@ -149,20 +219,13 @@ class NewsAdapter extends ArrayAdapter<News> {
     // Returns the formatted date String
     private String formattedDate(String inputDate) {
 
-        String inputFormat = getContext().getResources().getString(R.string.input_format);
-
-        String outputFormat = getContext().getResources().getString(R.string.output_format);
-
         Date parsed;
         String outputDate = "";
 
-        SimpleDateFormat dfInput = new SimpleDateFormat(inputFormat, java.util.Locale.getDefault());
-        SimpleDateFormat dfOutput = new SimpleDateFormat(outputFormat, java.util.Locale.getDefault());
-
         try {
 
-            parsed = dfInput.parse(inputDate);
-            outputDate = dfOutput.format(parsed);
+            parsed = mInputDateFormat.parse(inputDate);
+            outputDate = mOutputDateFormat.format(parsed);
 
         } catch (Exception e) {
 
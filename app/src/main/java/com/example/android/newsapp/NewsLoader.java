@@ -8,28 +8,103 @@ import java.util.List;
 
 /**
  * Loads a list of articles by using an AsyncTask to perform the
- * network request to the given URL.
+ * network request to the given URL. The loaded list is kept in the {@link FeedStore},
+ * and when a watermark to restore is given, the stored list is returned instead,
+ * without any network request. Either way, the articles are also added to the
+ * {@link SectionedArticleStore}, shared with the other fetchers of the app,
+ * which keeps the recent articles of every section for the section views.
  */
 class NewsLoader extends AsyncTaskLoader<List<News>> {
 
     /** Query URL */
     private final String mArticleUrl;
 
+    /** Amount of data to fetch, chosen for the network quality */
+    private final FetchPolicy mPolicy;
+
+    /**
+     * Ranking stage ordering and deduplicating the loaded articles.
+     * By recency only, the app has no section or author preferences yet.
+     */
+    private final FeedRanker mRanker = new FeedRanker();
+
+    /** Store keeping the loaded list of articles */
+    private final FeedStore mStore;
+
+    /** Key the loaded list is stored under, the query without the parameters set by the policy */
+    private final String mQueryKey;
+
+    /** Watermark of the stored list to restore, 0 to load from the network */
+    private final long mRestoreWatermark;
+
+    /** True to only restore the stored list, without falling back to the network, e.g. when offline */
+    private final boolean mRestoreOnly;
+
+    /** Watermark of the list loaded last, 0 if it isn't stored */
+    private volatile long mWatermark;
+
+    /** List of articles loaded last, delivered again when the activity comes back */
+    private List<News> mArticles;
+
     /**
      * Constructs a new {@link NewsLoader}.
      *
      * @param context of the activity
      * @param url to load data from
+     * @param policy is the amount of data to fetch
+     * @param store keeps the loaded list of articles
+     * @param queryKey is the key the list is stored under
+     * @param restoreWatermark is the watermark of the stored list to restore, 0 to load from the network
+     * @param restoreOnly is true to give an empty list instead of loading from the network if the stored list is gone
      */
-    @SuppressWarnings("SameParameterValue")
-    NewsLoader(Context context, String url) {
+    NewsLoader(Context context, String url, FetchPolicy policy, FeedStore store, String queryKey, long restoreWatermark,
+               boolean restoreOnly) {
         super(context);
         mArticleUrl = url;
+        mPolicy = policy;
+        mStore = store;
+        mQueryKey = queryKey;
+        mRestoreWatermark = restoreWatermark;
+        mRestoreOnly = restoreOnly;
+    }
+
+    /**
+     * Returns the amount of data this loader fetches.
+     */
+    FetchPolicy getPolicy() {
+        return mPolicy;
+    }
+
+    /**
+     * Returns true if this loader only restores the stored list, without the network.
+     */
+    boolean isRestoreOnly() {
+        return mRestoreOnly;
+    }
+
+    /**
+     * Returns the watermark of the list loaded last, or 0 if it isn't stored.
+     */
+    long getWatermark() {
+        return mWatermark;
     }
 
     @Override
     protected void onStartLoading() {
-        forceLoad();
+        // Returning to the activity shows the articles loaded already, without a new request
+        if (mArticles != null) {
+            deliverResult(mArticles);
+        }
+
+        if (mArticles == null || takeContentChanged()) {
+            forceLoad();
+        }
+    }
+
+    @Override
+    public void deliverResult(List<News> articles) {
+        mArticles = articles;
+        super.deliverResult(articles);
     }
 
     /**
@@ -37,11 +112,46 @@ class NewsLoader extends AsyncTaskLoader<List<News>> {
      */
     @Override
     public List<News> loadInBackground() {
-        if (mArticleUrl == null) {
+
+        // Restoring the list shown before the process was killed, without the network.
+        // Only the first load restores, reloading always fetches fresh articles.
+        if (mRestoreWatermark != 0 && mWatermark == 0) {
+            List<News> stored = mStore.get(mQueryKey, mRestoreWatermark);
+
+            if (stored != null) {
+                SectionedArticleStore.getInstance().addAll(stored);
+                mWatermark = mRestoreWatermark;
+                return stored;
+            }
+        }
+
+        // The stored list is gone, e.g. the cache has been cleared, and there's no network to fetch it
+        if (mRestoreOnly) {
+            return Collections.<News>emptyList();
+        }
+
+        List<News> articles = loadArticles(mArticleUrl, mPolicy, mRanker);
+
+        // Not replacing the stored list with the result of a failed request
+        if (!articles.isEmpty()) {
+            SectionedArticleStore.getInstance().addAll(articles);
+            mWatermark = mStore.put(mQueryKey, articles);
+        }
+
+        return articles;
+    }
+
+    /**
+     * Loads, ranks and deduplicates the articles from the given URL. Doesn't depend on
+     * the loader itself, so it can also run in local unit tests.
+     */
+    static List<News> loadArticles(String url, FetchPolicy policy, FeedRanker ranker) {
+        if (url == null) {
             return Collections.emptyList();
         }
 
         // Perform the network request, parse the response, and extract a list of articles.
-        return NewsUtils.fetchNewsData(mArticleUrl);
+        // Then rank the articles, dropping the duplicates.
+        return ranker.rank(NewsUtils.fetchNewsData(url, policy));
     }
 }
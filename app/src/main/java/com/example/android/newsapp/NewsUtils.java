@@ -1,23 +1,21 @@
 package com.example.android.newsapp;
 
-import android.text.TextUtils;
 import android.util.Log;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 class NewsUtils {
 
@@ -26,6 +24,11 @@ class NewsUtils {
      */
     private static final String LOG_TAG = NewsUtils.class.getSimpleName();
 
+    /**
+     * Maximum size of a response, larger ones are dropped
+     */
+    private static final int MAX_RESPONSE_BYTES = BoundedStreamReader.DEFAULT_MAX_BYTES;
+
     /**
      * Tags for nodes
      */
@@ -43,6 +46,7 @@ class NewsUtils {
     private static final String KEY_URL = "webUrl";
     private static final String KEY_TRAIL_TEXT = "trailText";
     private static final String KEY_THUMBNAIL = "thumbnail";
+    private static final String KEY_BODY = "body";
 
     /**
      * empty string in case of situation there's no json data
@@ -50,14 +54,43 @@ class NewsUtils {
     private static final String KEY_NO_AUTHOR = "No author";
     private static final String KEY_NO_THUMBNAIL = "No thumbnail";
     private static final String KEY_NO_TRAIL_TEXT = "No trail text";
+    private static final String KEY_NO_BODY = "";
+
+    /**
+     * Destination of the error messages. Local unit tests replace it,
+     * as android.util.Log isn't available on the JVM.
+     */
+    interface Logger {
+        void e(String tag, String message, Throwable throwable);
+    }
+
+    /**
+     * Logger writing to android.util.Log, used in the app
+     */
+    private static final Logger ANDROID_LOGGER = new Logger() {
+        @Override
+        public void e(String tag, String message, Throwable throwable) {
+            Log.e(tag, message, throwable);
+        }
+    };
+
+    private static volatile Logger sLogger = ANDROID_LOGGER;
 
     private NewsUtils() {
     }
 
     /**
-     * Query the Guardian API and return a list of {@link News} objects.
+     * Sets the destination of the error messages, null to go back to android.util.Log.
      */
-    public static List<News> fetchNewsData(String requestUrl) {
+    static void setLogger(Logger logger) {
+        sLogger = logger == null ? ANDROID_LOGGER : logger;
+    }
+
+    /**
+     * Query the Guardian API and return a list of {@link News} objects,
+     * with the thumbnails in the width of the given {@link FetchPolicy}.
+     */
+    public static List<News> fetchNewsData(String requestUrl, FetchPolicy policy) {
         // Create URL object
         URL url = createUrl(requestUrl);
 
@@ -70,12 +103,12 @@ class NewsUtils {
 
         } catch (IOException e) {
 
-            Log.e(LOG_TAG, "InputStream closing problem", e);
+            sLogger.e(LOG_TAG, "InputStream closing problem", e);
 
         }
 
         // Extract relevant fields from the JSON response and return the list of {@link News}s
-        return extractFeatureFromJson(jsonResponse);
+        return extractFeatureFromJson(jsonResponse, policy);
     }
 
     /**
@@ -90,7 +123,7 @@ class NewsUtils {
 
         } catch (MalformedURLException e) {
 
-            Log.e(LOG_TAG, "URL building problem", e);
+            sLogger.e(LOG_TAG, "URL building problem", e);
 
         }
 
@@ -111,28 +144,63 @@ class NewsUtils {
         HttpURLConnection urlConnection = null;
         InputStream inputStream = null;
 
+        long requestStart = System.nanoTime();
+
         try {
 
             urlConnection = (HttpURLConnection) url.openConnection();
             urlConnection.setReadTimeout(10000 /* milliseconds */);
             urlConnection.setConnectTimeout(15000 /* milliseconds */);
             urlConnection.setRequestMethod("GET");
+
             urlConnection.connect();
 
             // If the request was successful (response code 200),
             // then read the input stream and parse the response.
             if (urlConnection.getResponseCode() == 200) {
+                long responseStart = System.nanoTime();
                 inputStream = urlConnection.getInputStream();
-                jsonResponse = readFromStream(inputStream);
+
+                // Responses over the budget are dropped as soon as they're known to be too large
+                BoundedStreamReader reader = new BoundedStreamReader(MAX_RESPONSE_BYTES);
+                jsonResponse = reader.read(inputStream, urlConnection.getContentLength());
+                long responseEnd = System.nanoTime();
+
+                // Feed the timings to the network quality estimate
+                NetworkQualityEstimator.getInstance().onRequestCompleted(
+                        TimeUnit.NANOSECONDS.toMillis(responseStart - requestStart),
+                        reader.getBytesRead(),
+                        TimeUnit.NANOSECONDS.toMillis(responseEnd - responseStart));
             } else {
 
-                Log.e(LOG_TAG, "Error response code: " + urlConnection.getResponseCode());
+                // The error response still tells how long the round trip took
+                NetworkQualityEstimator.getInstance().onRequestCompleted(
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart), 0, 0);
+
+                sLogger.e(LOG_TAG, "Error response code: " + urlConnection.getResponseCode(), null);
 
             }
 
+        } catch (BoundedStreamReader.ResponseTooLargeException e) {
+
+            // Too much data rather than a bad network, so the estimate is left as it is
+            sLogger.e(LOG_TAG, "JSON results retrieving problem", e);
+
+        } catch (SocketTimeoutException e) {
+
+            // Timeouts count as slow requests
+            NetworkQualityEstimator.getInstance().onRequestFailed(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart), true);
+
+            sLogger.e(LOG_TAG, "JSON results retrieving problem", e);
+
         } catch (IOException e) {
 
-            Log.e(LOG_TAG, "JSON results retrieving problem", e);
+            // Unknown hosts and refused or reset connections fail fast, the estimator ignores them
+            NetworkQualityEstimator.getInstance().onRequestFailed(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStart), false);
+
+            sLogger.e(LOG_TAG, "JSON results retrieving problem", e);
 
         } finally {
 
@@ -151,38 +219,14 @@ class NewsUtils {
         return jsonResponse;
     }
 
-    /**
-     * Convert the {@link InputStream} into a String which contains the
-     * whole JSON response from the server.
-     */
-    private static String readFromStream(InputStream inputStream) throws IOException {
-        StringBuilder output = new StringBuilder();
-
-        if (inputStream != null) {
-
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, Charset.forName("UTF-8"));
-            BufferedReader reader = new BufferedReader(inputStreamReader);
-            String line = reader.readLine();
-
-            while (line != null) {
-
-                output.append(line);
-                line = reader.readLine();
-
-            }
-        }
-
-        return output.toString();
-    }
-
     /**
      * Return a list of {@link News} objects that has been built up from
      * parsing the given JSON response.
      */
-    private static List<News> extractFeatureFromJson(String articleJSON) {
+    private static List<News> extractFeatureFromJson(String articleJSON, FetchPolicy policy) {
 
         // If the JSON string is empty or null, then return early.
-        if (TextUtils.isEmpty(articleJSON)) {
+        if (articleJSON == null || articleJSON.isEmpty()) {
             return Collections.emptyList();
         }
 
@@ -202,10 +246,6 @@ class NewsUtils {
             // Extract the JSONArray associated with the key called "results"
             JSONArray resultsArray = responseJsonObject.getJSONArray(KEY_RESULTS);
 
-            String author = null;
-            String trailText = null;
-            String thumbnailUrl = null;
-
             // Iterating through resultsArray, creating an (@link News) object
             for (int i = 0; i < resultsArray.length(); i++) {
 
@@ -224,6 +264,12 @@ class NewsUtils {
                 // Extract the value for the key called "webUrl"
                 String url = currentArticle.optString(KEY_URL);
 
+                // Defaults for an article without the "fields" object, never the previous article's values
+                String author = KEY_NO_AUTHOR;
+                String trailText = KEY_NO_TRAIL_TEXT;
+                String thumbnailUrl = KEY_NO_THUMBNAIL;
+                String body = KEY_NO_BODY;
+
                 if (currentArticle.has(KEY_FIELDS)) {
 
                     // Extract the JSONObject associated with the key called "fields"
@@ -241,8 +287,8 @@ class NewsUtils {
 
                     if (fieldsObject.has(KEY_THUMBNAIL)) {
 
-                        // Extract the value for the key called "thumbnail"
-                        thumbnailUrl = fieldsObject.getString(KEY_THUMBNAIL);
+                        // Extract the value for the key called "thumbnail", in the width of the policy
+                        thumbnailUrl = policy.thumbnailUrl(fieldsObject.getString(KEY_THUMBNAIL));
 
                     } else {
 
@@ -260,12 +306,23 @@ class NewsUtils {
                         author = KEY_NO_AUTHOR;
 
                     }
+
+                    if (fieldsObject.has(KEY_BODY)) {
+
+                        // Extract the value for the key called "body"
+                        body = fieldsObject.getString(KEY_BODY);
+
+                    } else {
+
+                        body = KEY_NO_BODY;
+
+                    }
                 }
 
                 // Create a new {@link News} object with the category, date, title,
-                // url, author, trail text and thumbnail url from the JSON response.
+                // url, author, trail text, thumbnail url and body from the JSON response.
 
-                News article = new News(category, date, title, url, author, trailText, thumbnailUrl);
+                News article = new News(category, date, title, url, author, trailText, thumbnailUrl, body);
 
                 articles.add(article);
 
@@ -275,7 +332,7 @@ class NewsUtils {
             // If an error is thrown when executing any of the above statements in the "try" block,
             // catch the exception here, so the app doesn't crash. Print a log message
             // with the message from the exception.
-            Log.e("QueryUtils", "JSON results parsing problem", e);
+            sLogger.e(LOG_TAG, "JSON results parsing problem", e);
         }
 
         // Return the list of articles
@@ -0,0 +1,89 @@
+package com.example.android.newsapp;
+
+import android.os.AsyncTask;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the bodies of the given articles in the {@link ArticleCache} on a background thread,
+ * so that they can be opened in the in-app reader later on, even without a network connection.
+ * Bodies stored before are replaced when the fetched body differs, so live blogs and
+ * updated articles don't stay stale in the reader. The articles below the number to store
+ * are only checked for a body stored before.
+ * The tasks must run one at a time, e.g. on AsyncTask.SERIAL_EXECUTOR, as two tasks storing
+ * the same article would write the same file. The callback, usually the activity, is held weakly.
+ */
+class ReadAheadTask extends AsyncTask<News, Void, List<String>> {
+
+    /**
+     * Receives the urls of the articles whose bodies are stored, on the main thread.
+     */
+    interface Callback {
+        void onArticlesReadAhead(List<String> articleUrls);
+    }
+
+    /** Store for the article bodies */
+    private final ArticleCache mCache;
+
+    /** Maximum number of articles to store */
+    private final int mMaxArticles;
+
+    /** Receiver of the stored urls, not kept alive by the task */
+    private final WeakReference<Callback> mCallback;
+
+    /**
+     * Constructs a new {@link ReadAheadTask}.
+     *
+     * @param cache       to store the article bodies in
+     * @param maxArticles is the number of articles from the top of the feed to store
+     * @param callback    receives the urls of the articles whose bodies are stored
+     */
+    ReadAheadTask(ArticleCache cache, int maxArticles, Callback callback) {
+        mCache = cache;
+        mMaxArticles = maxArticles;
+        mCallback = new WeakReference<>(callback);
+    }
+
+    /**
+     * This is on a background thread.
+     */
+    @Override
+    protected List<String> doInBackground(News... articles) {
+
+        List<String> stored = new ArrayList<>();
+
+        for (int i = 0; i < articles.length && !isCancelled(); i++) {
+
+            String articleUrl = articles[i].getArticleUrl();
+            String body = articles[i].getArticleBody();
+
+            // Beyond the articles to store, or the body wasn't fetched this time,
+            // keeping the one stored before, if any
+            if (i >= mMaxArticles || body == null || body.isEmpty()) {
+                if (mCache.contains(articleUrl)) {
+                    stored.add(articleUrl);
+                }
+                continue;
+            }
+
+            // Writing the body only when it's new or has changed since it was stored
+            if (body.equals(mCache.get(articleUrl)) || mCache.put(articleUrl, body)) {
+                stored.add(articleUrl);
+            }
+        }
+
+        return stored;
+    }
+
+    @Override
+    protected void onPostExecute(List<String> articleUrls) {
+
+        Callback callback = mCallback.get();
+
+        if (callback != null) {
+            callback.onArticlesReadAhead(articleUrls);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.android.newsapp;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory store of the loaded articles, partitioned by their section, so the feed can
+ * be browsed one section at a time across everything loaded since the app started.
+ * Every section is a separate append-only log with its own lock, so fetchers writing
+ * articles of different sections (topic feeds, background sync, further pages) never wait
+ * for each other. Readers take no lock at all: a snapshot of a section is a window of
+ * its log, which never changes afterwards.
+ * Articles already in a section, by their canonical url, are not added again.
+ * Every section keeps only its most recently added articles, and the articles are kept
+ * without their bodies, which are stored on disk by the {@link ArticleCache}.
+ */
+class SectionedArticleStore {
+
+    /**
+     * Section of the articles without one
+     */
+    static final String NO_SECTION = "";
+
+    /**
+     * Number of articles kept per section by default, a few pages of the feed.
+     * The Guardian has a few dozen sections, so the store holds a few thousand articles at most.
+     */
+    static final int DEFAULT_MAX_ARTICLES_PER_SECTION = 200;
+
+    /**
+     * Initial capacity of the log of a section
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Store shared by all the loaders of the app */
+    private static final SectionedArticleStore sInstance = new SectionedArticleStore(DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+    /**
+     * Logs of the sections, by the section name
+     */
+    private final ConcurrentMap<String, Section> mSections = new ConcurrentHashMap<>();
+
+    /** Number of articles kept per section, the oldest ones are evicted beyond it */
+    private final int mMaxArticlesPerSection;
+
+    /**
+     * Constructs a new {@link SectionedArticleStore}.
+     *
+     * @param maxArticlesPerSection is the number of articles kept per section
+     */
+    SectionedArticleStore(int maxArticlesPerSection) {
+
+        if (maxArticlesPerSection < 1) {
+            throw new IllegalArgumentException("maxArticlesPerSection must be positive");
+        }
+
+        mMaxArticlesPerSection = maxArticlesPerSection;
+    }
+
+    /**
+     * Returns the store shared by all the loaders of the app.
+     */
+    static SectionedArticleStore getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Appends the article, without its body, to the log of its section, evicting the oldest
+     * article of a full section. Returns false if the section already has an article with
+     * the same canonical url.
+     */
+    boolean add(News article) {
+        return sectionFor(article.getSectionName()).append(article);
+    }
+
+    /**
+     * Appends the articles to the logs of their sections, skipping the ones already stored.
+     * Returns the number of articles added.
+     */
+    int addAll(List<News> articles) {
+
+        int added = 0;
+
+        for (int i = 0; i < articles.size(); i++) {
+            if (add(articles.get(i))) {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Returns the articles kept for the given section in the order they were added.
+     * The returned list is immutable and doesn't change when more articles are added.
+     */
+    List<News> snapshot(String sectionName) {
+
+        Section section = mSections.get(sectionName == null ? NO_SECTION : sectionName);
+
+        if (section == null) {
+            return Collections.emptyList();
+        }
+
+        return section.mSnapshot;
+    }
+
+    /**
+     * Returns the names of the sections with stored articles.
+     */
+    List<String> sections() {
+        return new ArrayList<>(mSections.keySet());
+    }
+
+    /**
+     * Returns the number of articles kept for the given section.
+     */
+    int size(String sectionName) {
+        return snapshot(sectionName).size();
+    }
+
+    // Returns the log of the given section, creating it on first use
+    private Section sectionFor(String sectionName) {
+
+        String key = sectionName == null ? NO_SECTION : sectionName;
+        Section section = mSections.get(key);
+
+        if (section == null) {
+            Section created = new Section(mMaxArticlesPerSection);
+            section = mSections.putIfAbsent(key, created);
+
+            if (section == null) {
+                section = created;
+            }
+        }
+
+        return section;
+    }
+
+    // Returns the article without its body, the list and the section views never show it
+    private static News withoutBody(News article) {
+
+        if (article.getArticleBody() == null || article.getArticleBody().isEmpty()) {
+            return article;
+        }
+
+        return new News(article.getSectionName(), article.getDatePublished(), article.getArticleTitle(),
+                article.getArticleUrl(), article.getArticleAuthor(), article.getTrailText(),
+                article.getThumbnailUrl(), "");
+    }
+
+    /**
+     * Append-only log of the articles of one section. Appends lock the section,
+     * reads don't: every append publishes a new immutable window of the log,
+     * and a slot of the log array is never written again once it's published.
+     * Evicting moves the start of the window, the evicted articles are dropped
+     * when the log is copied into a new array, so the log holds at most about
+     * twice the kept articles.
+     */
+    private static class Section {
+
+        /** Canonical url hashes of the kept articles, guarded by the section lock */
+        private final LongIntHashMap mUrlHashes = new LongIntHashMap(INITIAL_CAPACITY);
+
+        private final int mMaxArticles;
+
+        /** Log of the articles and the window of the kept ones, guarded by the section lock */
+        private News[] mLog = new News[INITIAL_CAPACITY];
+        private int mStart;
+        private int mEnd;
+
+        /** Kept articles as of the last append */
+        private volatile List<News> mSnapshot = Collections.emptyList();
+
+        Section(int maxArticles) {
+            mMaxArticles = maxArticles;
+        }
+
+        synchronized boolean append(News article) {
+
+            if (!mUrlHashes.putIfAbsent(FeedRanker.canonicalUrlHash(article.getArticleUrl()), 0)) {
+                return false;
+            }
+
+            // Evicting the oldest article, so it can be added again later
+            if (mEnd - mStart == mMaxArticles) {
+                mUrlHashes.remove(FeedRanker.canonicalUrlHash(mLog[mStart].getArticleUrl()));
+                mStart++;
+            }
+
+            // Copying the kept articles into a new array, the readers of the old one keep their snapshot
+            if (mEnd == mLog.length) {
+                int kept = mEnd - mStart;
+                News[] log = new News[Math.max(INITIAL_CAPACITY, kept * 2)];
+                System.arraycopy(mLog, mStart, log, 0, kept);
+
+                mLog = log;
+                mStart = 0;
+                mEnd = kept;
+            }
+
+            mLog[mEnd++] = withoutBody(article);
+            mSnapshot = new Snapshot(mLog, mStart, mEnd - mStart);
+
+            return true;
+        }
+    }
+
+    /**
+     * Immutable view of a window of a section's log.
+     */
+    private static class Snapshot extends AbstractList<News> {
+
+        private final News[] mArticles;
+        private final int mOffset;
+        private final int mSize;
+
+        Snapshot(News[] articles, int offset, int size) {
+            mArticles = articles;
+            mOffset = offset;
+            mSize = size;
+        }
+
+        @Override
+        public News get(int index) {
+
+            if (index < 0 || index >= mSize) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + mSize);
+            }
+
+            return mArticles[mOffset + index];
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+    }
+}
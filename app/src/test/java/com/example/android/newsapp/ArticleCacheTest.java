@@ -0,0 +1,94 @@
+package com.example.android.newsapp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link ArticleCache}.
+ */
+public class ArticleCacheTest {
+
+    private static final String FIRST_URL = "https://www.theguardian.com/world/2018/mar/01/first";
+    private static final String SECOND_URL = "https://www.theguardian.com/world/2018/mar/01/second";
+    private static final String THIRD_URL = "https://www.theguardian.com/world/2018/mar/01/third";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "articles");
+    }
+
+    @Test
+    public void storedBody_isReturned() {
+        ArticleCache cache = new ArticleCache(directory, 1024);
+
+        assertTrue(cache.put(FIRST_URL, "<p>Zażółć gęślą jaźń</p>"));
+
+        assertTrue(cache.contains(FIRST_URL));
+        assertEquals("<p>Zażółć gęślą jaźń</p>", cache.get(FIRST_URL));
+    }
+
+    @Test
+    public void missingBody_isNull() {
+        ArticleCache cache = new ArticleCache(directory, 1024);
+
+        assertFalse(cache.contains(FIRST_URL));
+        assertNull(cache.get(FIRST_URL));
+    }
+
+    @Test
+    public void emptyBody_isNotStored() {
+        ArticleCache cache = new ArticleCache(directory, 1024);
+
+        assertFalse(cache.put(FIRST_URL, ""));
+        assertFalse(cache.put(FIRST_URL, null));
+        assertFalse(cache.contains(FIRST_URL));
+    }
+
+    @Test
+    public void bodyLargerThanBudget_isNotStored() {
+        ArticleCache cache = new ArticleCache(directory, 10);
+
+        assertFalse(cache.put(FIRST_URL, "<p>longer than ten bytes</p>"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedBody_isEvictedOverBudget() throws Exception {
+        ArticleCache cache = new ArticleCache(directory, 250);
+
+        cache.put(FIRST_URL, body('a', 100));
+        cache.put(SECOND_URL, body('b', 100));
+
+        // Making sure the first article is older than the second one
+        new File(directory, CacheFiles.keyFor(FIRST_URL) + ".html").setLastModified(1000);
+        new File(directory, CacheFiles.keyFor(SECOND_URL) + ".html").setLastModified(2000);
+
+        cache.put(THIRD_URL, body('c', 100));
+
+        assertFalse(cache.contains(FIRST_URL));
+        assertTrue(cache.contains(SECOND_URL));
+        assertTrue(cache.contains(THIRD_URL));
+        assertTrue(cache.size() <= 250);
+    }
+
+    private static String body(char c, int length) {
+        StringBuilder builder = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++) {
+            builder.append(c);
+        }
+
+        return builder.toString();
+    }
+}
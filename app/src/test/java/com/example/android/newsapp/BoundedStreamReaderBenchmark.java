@@ -0,0 +1,141 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the {@link BoundedStreamReader} against the line by line reading
+ * NewsUtils used before, on 100 KB, 1 MB and 10 MB JSON payloads.
+ * Prints the median throughput and the bytes allocated per read, so they can be compared
+ * between changes. The allocations are only reported on JVMs able to count them.
+ */
+@Category(SlowTests.class)
+public class BoundedStreamReaderBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int[] PAYLOAD_SIZES = {100 * 1024, 1024 * 1024, 10 * 1024 * 1024};
+
+    private interface StreamReader {
+        String read(InputStream inputStream, int length) throws IOException;
+    }
+
+    @Test
+    public void compareWithLineReader() throws IOException {
+        StreamReader lineReader = new StreamReader() {
+            @Override
+            public String read(InputStream inputStream, int length) throws IOException {
+                return readLines(inputStream);
+            }
+        };
+
+        StreamReader boundedReader = new StreamReader() {
+            @Override
+            public String read(InputStream inputStream, int length) throws IOException {
+                return new BoundedStreamReader(16 * 1024 * 1024).read(inputStream, length);
+            }
+        };
+
+        for (int size : PAYLOAD_SIZES) {
+            byte[] payload = payload(size);
+            int runs = Math.max(5, 50 * 1024 * 1024 / size);
+
+            report("line reader", payload, measure(lineReader, payload, runs));
+            report("bounded reader", payload, measure(boundedReader, payload, runs));
+
+            // Apart from the dropped newlines, both read the same
+            assertEquals(readLines(new ByteArrayInputStream(payload)),
+                    boundedReader.read(new ByteArrayInputStream(payload), payload.length).replace("\n", ""));
+        }
+    }
+
+    // Returns the median nanoseconds and the median allocated bytes per read
+    private static long[] measure(StreamReader reader, byte[] payload, int runs) throws IOException {
+        for (int i = 0; i < runs; i++) {
+            reader.read(new ByteArrayInputStream(payload), payload.length);
+        }
+
+        long[] nanos = new long[runs];
+        long[] allocated = new long[runs];
+
+        for (int i = 0; i < runs; i++) {
+            InputStream inputStream = new ByteArrayInputStream(payload);
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            reader.read(inputStream, payload.length);
+            nanos[i] = System.nanoTime() - start;
+            allocated[i] = allocatedBytes() - allocatedBefore;
+        }
+
+        Arrays.sort(nanos);
+        Arrays.sort(allocated);
+
+        return new long[]{nanos[runs / 2], allocated[runs / 2]};
+    }
+
+    private static void report(String name, byte[] payload, long[] result) {
+        double megabytes = payload.length / (1024.0 * 1024.0);
+        double throughput = megabytes / (result[0] / 1e9);
+        String allocated = result[1] < 0 ? "n/a" : String.format(Locale.US, "%.1f KB", result[1] / 1024.0);
+
+        System.out.println(String.format(Locale.US, "%-14s %8.1f KB: %8.1f MB/s, allocated %s per read",
+                name, payload.length / 1024.0, throughput, allocated));
+    }
+
+    // Bytes allocated by the current thread so far, or a negative value if the JVM can't tell
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return Long.MIN_VALUE / 2;
+    }
+
+    // The reading NewsUtils did before the BoundedStreamReader
+    private static String readLines(InputStream inputStream) throws IOException {
+        StringBuilder output = new StringBuilder();
+
+        InputStreamReader inputStreamReader = new InputStreamReader(inputStream, UTF_8);
+        BufferedReader reader = new BufferedReader(inputStreamReader);
+        String line = reader.readLine();
+
+        while (line != null) {
+            output.append(line);
+            line = reader.readLine();
+        }
+
+        return output.toString();
+    }
+
+    // Guardian like search response of roughly the given size, with one article per line
+    private static byte[] payload(int size) {
+        StringBuilder json = new StringBuilder(size + 1024);
+        json.append("{\"response\":{\"status\":\"ok\",\"results\":[\n");
+
+        for (int i = 0; json.length() < size; i++) {
+            json.append("{\"id\":\"world/2018/mar/").append(i)
+                    .append("\",\"sectionName\":\"World news\",\"webPublicationDate\":\"2018-03-01T10:00:00Z\"")
+                    .append(",\"webTitle\":\"Poland's Senate passes Holocaust speech bill – Kraków\"")
+                    .append(",\"fields\":{\"byline\":\"Christian Davies\",\"body\":\"<p>Zażółć gęślą jaźń. ")
+                    .append("Bill would outlaw mention of Polish complicity in Nazi crimes.</p>\"}},\n");
+        }
+
+        json.append("{}]}}\n");
+        return json.toString().getBytes(UTF_8);
+    }
+}
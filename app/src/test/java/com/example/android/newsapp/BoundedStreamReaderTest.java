@@ -0,0 +1,198 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link BoundedStreamReader}.
+ */
+public class BoundedStreamReaderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void wholeResponse_isDecoded() throws IOException {
+        String json = "{\"response\":{\n\"results\":[{\"webTitle\":\"Zażółć gęślą jaźń – €\"}]}}\n";
+
+        BoundedStreamReader reader = new BoundedStreamReader(1024);
+
+        assertEquals(json, reader.read(stream(json), -1));
+        assertEquals(json.getBytes(UTF_8).length, reader.getBytesRead());
+    }
+
+    @Test
+    public void multiByteCharacters_splitBetweenReads_areDecoded() throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 20000; i++) {
+            builder.append("ąę€");
+        }
+
+        String text = builder.toString();
+
+        // Returning one byte at a time splits every character between reads
+        InputStream trickling = new FilterInputStream(stream(text)) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+
+        assertEquals(text, new BoundedStreamReader(1024 * 1024).read(trickling, -1));
+    }
+
+    @Test
+    public void emptyResponse_isEmptyString() throws IOException {
+        assertEquals("", new BoundedStreamReader(1024).read(stream(""), -1));
+    }
+
+    @Test
+    public void responseOfExactlyMaxBytes_isRead() throws IOException {
+        String text = repeat('a', 100);
+
+        assertEquals(text, new BoundedStreamReader(100).read(stream(text), -1));
+    }
+
+    @Test(expected = BoundedStreamReader.ResponseTooLargeException.class)
+    public void responseOverMaxBytes_isRefused() throws IOException {
+        new BoundedStreamReader(100).read(stream(repeat('a', 101)), -1);
+    }
+
+    @Test
+    public void declaredLengthOverMaxBytes_isRefusedBeforeReading() {
+        CountingInputStream input = new CountingInputStream(stream(repeat('a', 1000)));
+
+        try {
+            new BoundedStreamReader(100).read(input, 1000);
+            fail("Expected ResponseTooLargeException");
+        } catch (IOException e) {
+            assertTrue(e instanceof BoundedStreamReader.ResponseTooLargeException);
+        }
+
+        assertEquals(0, input.bytesRead);
+    }
+
+    @Test
+    public void endlessResponse_isAbortedJustOverMaxBytes() {
+        CountingInputStream endless = new CountingInputStream(new InputStream() {
+            @Override
+            public int read() {
+                return 'a';
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    buffer[i] = 'a';
+                }
+                return length;
+            }
+        });
+
+        try {
+            new BoundedStreamReader(100000).read(endless, -1);
+            fail("Expected ResponseTooLargeException");
+        } catch (IOException e) {
+            assertTrue(e instanceof BoundedStreamReader.ResponseTooLargeException);
+        }
+
+        assertEquals(100001, endless.bytesRead);
+    }
+
+    @Test
+    public void wrongDeclaredLength_isIgnored() throws IOException {
+        String text = repeat('a', 5000);
+
+        assertEquals(text, new BoundedStreamReader(10000).read(stream(text), 10));
+        assertEquals(text.substring(0, 10), new BoundedStreamReader(10000).read(stream(text.substring(0, 10)), 5000));
+    }
+
+    @Test
+    public void concurrentReads_doNotShareTheBuffer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 4; t++) {
+                final String text = repeat((char) ('a' + t), 200000);
+
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        for (int i = 0; i < 50; i++) {
+                            if (!text.equals(new BoundedStreamReader(1024 * 1024).read(stream(text), text.length()))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void readAfterRefusedResponse_isCorrect() throws IOException {
+        try {
+            new BoundedStreamReader(100).read(stream(repeat('x', 1000)), -1);
+            fail("Expected ResponseTooLargeException");
+        } catch (BoundedStreamReader.ResponseTooLargeException expected) {
+            // The buffer goes back to the pool anyway
+        }
+
+        assertEquals("short", new BoundedStreamReader(100).read(stream("short"), -1));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(UTF_8));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+
+        return builder.toString();
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        long bytesRead;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+
+            if (read > 0) {
+                bytesRead += read;
+            }
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the {@link FeedRanker} on synthetic merged feeds of growing size.
+ * Prints the median time per ranking, so it can be compared between changes.
+ */
+@Category(SlowTests.class)
+public class FeedRankerBenchmark {
+
+    private static final int WARM_UP_RUNS = 200;
+    private static final int MEASURED_RUNS = 50;
+
+    @Test
+    public void rankSyntheticFeeds() {
+        for (int size : new int[]{1000, 5000, 10000}) {
+
+            List<News> feed = syntheticFeed(size);
+            int unique = size - size / 5;
+            FeedRanker ranker = new FeedRanker();
+
+            for (int i = 0; i < WARM_UP_RUNS; i++) {
+                ranker.rank(feed);
+            }
+
+            long[] timings = new long[MEASURED_RUNS];
+            int kept = 0;
+
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                kept = ranker.rank(feed).size();
+                timings[i] = System.nanoTime() - start;
+            }
+
+            Arrays.sort(timings);
+
+            System.out.println(String.format(Locale.US,
+                    "FeedRanker: %d candidates, %d kept of %d unique, median %.2f ms, max %.2f ms",
+                    size, kept, unique, timings[MEASURED_RUNS / 2] / 1e6, timings[MEASURED_RUNS - 1] / 1e6));
+
+            // The titles are all different, so only the repeated articles may be dropped
+            assertEquals(unique, kept);
+        }
+    }
+
+    // Feed of unique articles, a fifth of them repeated as overlapping pages would be
+    private static List<News> syntheticFeed(int size) {
+        Random random = new Random(size);
+        int unique = size - size / 5;
+        List<News> feed = new ArrayList<>(size);
+
+        for (int i = 0; i < unique; i++) {
+            feed.add(FeedRankerTest.article("https://www.theguardian.com/world/2018/mar/" + i,
+                    FeedRankerTest.randomTitle(random, i), FeedRankerTest.randomDate(random)));
+        }
+
+        for (int i = unique; i < size; i++) {
+            feed.add(feed.get(random.nextInt(unique)));
+        }
+
+        Collections.shuffle(feed, random);
+        return feed;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link FeedRanker}, run on synthetic feeds.
+ */
+public class FeedRankerTest {
+
+    @Test
+    public void articles_areOrderedByRecency() {
+        List<News> ranked = new FeedRanker().rank(Arrays.asList(
+                article("https://www.theguardian.com/a", "Sejm votes on the new budget", "2018-03-01T10:00:00Z"),
+                article("https://www.theguardian.com/b", "Warsaw hosts the climate summit", "2018-03-03T10:00:00Z"),
+                article("https://www.theguardian.com/c", "Polish farmers protest in Lublin", "2018-03-02T10:00:00Z")));
+
+        assertEquals(Arrays.asList("https://www.theguardian.com/b", "https://www.theguardian.com/c",
+                "https://www.theguardian.com/a"), urls(ranked));
+    }
+
+    @Test
+    public void sameDate_keepsFeedOrder() {
+        List<News> ranked = new FeedRanker().rank(Arrays.asList(
+                article("https://www.theguardian.com/a", "Sejm votes on the new budget", "2018-03-01T10:00:00Z"),
+                article("https://www.theguardian.com/b", "Warsaw hosts the climate summit", "2018-03-01T10:00:00Z")));
+
+        assertEquals(Arrays.asList("https://www.theguardian.com/a", "https://www.theguardian.com/b"), urls(ranked));
+    }
+
+    @Test
+    public void sameCanonicalUrl_isDeduplicated() {
+        List<News> ranked = new FeedRanker().rank(Arrays.asList(
+                article("https://www.theguardian.com/world/a", "Sejm votes on the new budget", "2018-03-02T10:00:00Z"),
+                article("http://amp.theguardian.com/world/a/?page=2#comments", "Budget vote live", "2018-03-01T10:00:00Z"),
+                article("https://WWW.THEGUARDIAN.COM/world/a", "Budget vote as it happened", "2018-03-01T09:00:00Z")));
+
+        assertEquals(Collections.singletonList("https://www.theguardian.com/world/a"), urls(ranked));
+    }
+
+    @Test
+    public void urlPath_isCaseSensitive() {
+        assertNotEquals(FeedRanker.canonicalUrlHash("https://www.theguardian.com/world/A"),
+                FeedRanker.canonicalUrlHash("https://www.theguardian.com/world/a"));
+    }
+
+    @Test
+    public void nearDuplicateTitles_areDeduplicated() {
+        List<News> ranked = new FeedRanker().rank(Arrays.asList(
+                article("https://www.theguardian.com/a", "Poland's Senate passes controversial Holocaust speech bill",
+                        "2018-03-01T10:00:00Z"),
+                article("https://www.theguardian.com/b", "Poland’s senate passes controversial Holocaust-speech bill!",
+                        "2018-03-01T11:00:00Z"),
+                article("https://www.theguardian.com/c", "Poland's president signs controversial Holocaust speech bill",
+                        "2018-03-01T12:00:00Z")));
+
+        // The newest of the near duplicates is kept, a different story about the same topic stays
+        assertEquals(Arrays.asList("https://www.theguardian.com/c", "https://www.theguardian.com/b"), urls(ranked));
+    }
+
+    @Test
+    public void nearDuplicate_isFoundAmongArticlesSharingCommonWords() {
+        String[] endings = {"budget vote delayed again", "teachers strike in Kraków", "coal miners march on Warsaw",
+                "court reform criticised", "border crossing reopens", "election date announced",
+                "energy prices rise", "farmers block motorways", "museum opens new wing", "river floods Wrocław"};
+
+        List<News> feed = new ArrayList<>();
+
+        for (int i = 0; i < endings.length; i++) {
+            feed.add(article("https://www.theguardian.com/" + i, "Poland news today - " + endings[i],
+                    "2018-03-01T1" + i + ":00:00Z"));
+        }
+
+        // Repeats the oldest story, which was kept before all the others sharing the prefix
+        feed.add(article("https://www.theguardian.com/repeat", "Poland news today: budget vote delayed again!",
+                "2018-03-01T09:00:00Z"));
+
+        List<News> ranked = new FeedRanker().rank(feed);
+
+        assertEquals(endings.length, ranked.size());
+        assertFalse(urls(ranked).contains("https://www.theguardian.com/repeat"));
+    }
+
+    @Test
+    public void articlesWithoutTitle_areNotNearDuplicates() {
+        List<News> ranked = new FeedRanker().rank(Arrays.asList(
+                article("https://www.theguardian.com/a", "", "2018-03-01T10:00:00Z"),
+                article("https://www.theguardian.com/b", "...", "2018-03-01T10:00:00Z"),
+                article("https://www.theguardian.com/c", "", "2018-03-01T10:00:00Z")));
+
+        assertEquals(3, ranked.size());
+    }
+
+    @Test
+    public void preferences_moveArticlesUp() {
+        Map<String, Integer> sections = new HashMap<>();
+        sections.put("Sport", 48);
+        Map<String, Integer> authors = new HashMap<>();
+        authors.put("Christian Davies", 12);
+
+        News oldSport = new News("Sport", "2018-03-01T10:00:00Z", "Poland qualify for the World Cup",
+                "https://www.theguardian.com/sport", "Barry Glendenning", "", "", "");
+        News preferredAuthor = new News("World news", "2018-03-02T00:00:00Z", "Warsaw hosts the climate summit",
+                "https://www.theguardian.com/author", "Christian Davies", "", "", "");
+        News newest = new News("World news", "2018-03-02T10:00:00Z", "Polish farmers protest in Lublin",
+                "https://www.theguardian.com/newest", "Someone Else", "", "", "");
+
+        List<News> ranked = new FeedRanker(sections, authors).rank(Arrays.asList(newest, preferredAuthor, oldSport));
+
+        assertEquals(Arrays.asList(oldSport, preferredAuthor, newest), ranked);
+    }
+
+    @Test
+    public void syntheticFeed_keepsEveryUniqueArticleOnce() {
+        Random random = new Random(42);
+        List<News> feed = new ArrayList<>();
+        Set<String> uniqueUrls = new HashSet<>();
+
+        for (int i = 0; i < 2000; i++) {
+            String url = "https://www.theguardian.com/world/2018/mar/" + i;
+            uniqueUrls.add(url);
+            feed.add(article(url, randomTitle(random, i), randomDate(random)));
+        }
+
+        // Overlapping pages of a merged feed
+        List<News> merged = new ArrayList<>(feed);
+        merged.addAll(feed.subList(500, 1500));
+        Collections.shuffle(merged, random);
+
+        List<News> ranked = new FeedRanker().rank(merged);
+
+        assertEquals(uniqueUrls, new HashSet<>(urls(ranked)));
+        assertEquals(uniqueUrls.size(), ranked.size());
+
+        for (int i = 1; i < ranked.size(); i++) {
+            assertTrue(FeedRanker.parseDateSeconds(ranked.get(i - 1).getDatePublished())
+                    >= FeedRanker.parseDateSeconds(ranked.get(i).getDatePublished()));
+        }
+    }
+
+    @Test
+    public void dates_areParsed() {
+        assertEquals(0, FeedRanker.parseDateSeconds("1970-01-01T00:00:00Z"));
+        assertEquals(1519900496, FeedRanker.parseDateSeconds("2018-03-01T10:34:56Z"));
+        assertEquals(951782400, FeedRanker.parseDateSeconds("2000-02-29T00:00:00Z"));
+        assertEquals(0, FeedRanker.parseDateSeconds("not a date"));
+        assertEquals(0, FeedRanker.parseDateSeconds(null));
+    }
+
+    @Test
+    public void longIntHashMap_keepsFirstValue() {
+        LongIntHashMap map = new LongIntHashMap(2);
+
+        for (long key = -1000; key < 1000; key++) {
+            assertTrue(map.putIfAbsent(key * 31, (int) key));
+        }
+
+        assertFalse(map.putIfAbsent(0, 7));
+        assertEquals(2000, map.size());
+
+        for (long key = -1000; key < 1000; key++) {
+            assertEquals((int) key, map.get(key * 31, Integer.MIN_VALUE));
+        }
+
+        assertEquals(-1, map.get(1, -1));
+    }
+
+    static News article(String url, String title, String date) {
+        return new News("World news", date, title, url, "Christian Davies", "", "", "");
+    }
+
+    // Titles made of distinct words, so unrelated synthetic articles are never near duplicates
+    static String randomTitle(Random random, int id) {
+        String[] words = {"Poland", "Warsaw", "Sejm", "budget", "protest", "court", "reform", "election",
+                "minister", "Kraków", "summit", "energy", "coal", "strike", "teachers", "border"};
+        StringBuilder title = new StringBuilder("Story ").append(Integer.toString(id, 36));
+
+        for (int i = 0; i < 6; i++) {
+            title.append(' ').append(words[random.nextInt(words.length)]).append(id % (i + 7));
+        }
+
+        return title.toString();
+    }
+
+    static String randomDate(Random random) {
+        return String.format(Locale.US, "2018-03-%02dT%02d:%02d:%02dZ",
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+
+    private static List<String> urls(List<News> articles) {
+        List<String> urls = new ArrayList<>();
+
+        for (News article : articles) {
+            urls.add(article.getArticleUrl());
+        }
+
+        return urls;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.android.newsapp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link FeedStore}.
+ */
+public class FeedStoreTest {
+
+    private static final String QUERY = "http://content.guardianapis.com/search?q=news%20AND%20Poland&api-key=test";
+    private static final String OTHER_QUERY = "http://content.guardianapis.com/search?q=football&api-key=test";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "feeds");
+    }
+
+    @Test
+    public void storedList_isRestored() {
+        FeedStore store = new FeedStore(directory);
+        List<News> articles = articles(3);
+
+        long watermark = store.put(QUERY, articles);
+        assertTrue(watermark != 0);
+
+        List<News> restored = new FeedStore(directory).get(QUERY, watermark);
+
+        assertNotNull(restored);
+        assertEquals(articles.size(), restored.size());
+
+        for (int i = 0; i < articles.size(); i++) {
+            assertSameArticle(articles.get(i), restored.get(i));
+        }
+    }
+
+    @Test
+    public void largeListWithLongBodies_isRestoredWithoutBodies() {
+        FeedStore store = new FeedStore(directory);
+
+        StringBuilder body = new StringBuilder();
+
+        while (body.length() < 100 * 1024) {
+            body.append("<p>Zażółć gęślą jaźń – Kraków €</p>");
+        }
+
+        List<News> articles = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            articles.add(new News("World news", "2018-03-01T10:00:00Z", "Title " + i,
+                    "https://www.theguardian.com/world/" + i, null, "", "No thumbnail", i < 20 ? body.toString() : ""));
+        }
+
+        List<News> restored = store.get(QUERY, store.put(QUERY, articles));
+
+        assertNotNull(restored);
+        assertEquals(1000, restored.size());
+
+        // The 2 MB of bodies are left to the ArticleCache
+        assertTrue(onlyFile().length() < 200 * 1024);
+        assertSameArticle(articles.get(0), restored.get(0));
+        assertSameArticle(articles.get(999), restored.get(999));
+    }
+
+    @Test
+    public void emptyList_isRestored() {
+        FeedStore store = new FeedStore(directory);
+
+        List<News> restored = store.get(QUERY, store.put(QUERY, Collections.<News>emptyList()));
+
+        assertNotNull(restored);
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    public void missingList_isNull() {
+        FeedStore store = new FeedStore(directory);
+
+        assertNull(store.get(QUERY, 1234));
+        assertNull(store.get(QUERY, 0));
+    }
+
+    @Test
+    public void replacedList_isNotRestoredForOldWatermark() {
+        FeedStore store = new FeedStore(directory);
+
+        // Stored right after each other, likely within the same millisecond
+        long first = store.put(QUERY, articles(2));
+        long second = store.put(QUERY, articles(4));
+
+        assertNotEquals(first, second);
+        assertNull(store.get(QUERY, first));
+        assertEquals(4, store.get(QUERY, second).size());
+    }
+
+    @Test
+    public void queries_areStoredSeparately() {
+        FeedStore store = new FeedStore(directory);
+
+        long watermark = store.put(QUERY, articles(2));
+        long otherWatermark = store.put(OTHER_QUERY, articles(5));
+
+        assertEquals(2, store.get(QUERY, watermark).size());
+        assertEquals(5, store.get(OTHER_QUERY, otherWatermark).size());
+    }
+
+    @Test
+    public void truncatedFile_isNull() throws IOException {
+        FeedStore store = new FeedStore(directory);
+        long watermark = store.put(QUERY, articles(3));
+
+        File file = onlyFile();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(file.length() / 2);
+        randomAccessFile.close();
+
+        assertNull(store.get(QUERY, watermark));
+    }
+
+    @Test
+    public void garbageFile_isNull() throws IOException {
+        FeedStore store = new FeedStore(directory);
+        long watermark = store.put(QUERY, articles(3));
+
+        FileOutputStream outputStream = new FileOutputStream(onlyFile());
+        outputStream.write(new byte[]{0, 0, 0, 1, 1, 2, 3, 4, 5, 6, 7, 8, 127, 127, 127, 127});
+        outputStream.close();
+
+        assertNull(store.get(QUERY, watermark));
+    }
+
+    @Test
+    public void unwritableDirectory_givesZeroWatermark() throws IOException {
+        File notADirectory = folder.newFile("feeds");
+
+        assertEquals(0, new FeedStore(notADirectory).put(QUERY, articles(1)));
+    }
+
+    private File onlyFile() {
+        File[] files = directory.listFiles();
+
+        assertNotNull(files);
+        assertEquals(1, files.length);
+
+        return files[0];
+    }
+
+    private static List<News> articles(int count) {
+        List<News> articles = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            articles.add(new News("World news", "2018-03-01T1" + i + ":00:00Z",
+                    "Poland's Senate passes bill " + i, "https://www.theguardian.com/world/2018/mar/01/" + i,
+                    "Christian Davies", "Zażółć gęślą jaźń " + i,
+                    "https://media.guim.co.uk/" + i + "/500.jpg", "<p>Body " + i + "</p>"));
+        }
+
+        return articles;
+    }
+
+    private static void assertSameArticle(News expected, News actual) {
+        assertEquals(expected.getSectionName(), actual.getSectionName());
+        assertEquals(expected.getDatePublished(), actual.getDatePublished());
+        assertEquals(expected.getArticleTitle(), actual.getArticleTitle());
+        assertEquals(expected.getArticleUrl(), actual.getArticleUrl());
+        assertEquals(expected.getArticleAuthor(), actual.getArticleAuthor());
+        assertEquals(expected.getTrailText(), actual.getTrailText());
+        assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+
+        // The bodies are not stored
+        assertEquals("", actual.getArticleBody());
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.android.newsapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Guardian "/search" endpoint, so the network and parsing code
+ * can be tested on the JVM, without a device and without the real network.
+ * Serves either a recorded response from the test resources or generated pages of articles,
+ * honouring the "page", "page-size" and "show-fields" parameters, with configurable latency,
+ * error responses and number of pages.
+ */
+class GuardianApiStub implements Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String SEARCH_PATH = "/search";
+
+    private static final String[] TITLE_WORDS = {
+            "Warsaw", "senate", "election", "budget", "river", "strike", "court", "climate",
+            "football", "museum", "railway", "protest", "harvest", "border", "minister", "theatre",
+            "festival", "hospital", "storm", "archive", "forest", "bridge", "treaty", "market",
+            "school", "coal", "winter", "orchestra", "airport", "vote", "mayor", "league"};
+
+    private final HttpServer mServer;
+    private final ExecutorService mExecutor;
+
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+
+    private volatile long mLatencyMs;
+    private volatile int mErrorCode;
+    private volatile int mFailEvery;
+    private volatile int mPages = 1;
+    private volatile byte[] mRecordedResponse;
+
+    private GuardianApiStub() throws IOException {
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        mExecutor = Executors.newCachedThreadPool();
+        mServer.setExecutor(mExecutor);
+        mServer.createContext(SEARCH_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    respond(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a stand-in on a free local port, serving generated pages.
+     */
+    static GuardianApiStub start() throws IOException {
+        GuardianApiStub stub = new GuardianApiStub();
+        stub.mServer.start();
+        return stub;
+    }
+
+    /**
+     * Returns the url of the search endpoint with the given query string appended.
+     */
+    String searchUrl(String query) {
+        return "http://" + mServer.getAddress().getHostString() + ":" + mServer.getAddress().getPort()
+                + SEARCH_PATH + "?" + query;
+    }
+
+    /**
+     * Delays every response by the given time.
+     */
+    void setLatency(long latencyMs) {
+        mLatencyMs = latencyMs;
+    }
+
+    /**
+     * Answers every request with the given HTTP error code, 0 to answer normally again.
+     */
+    void setErrorCode(int errorCode) {
+        mErrorCode = errorCode;
+    }
+
+    /**
+     * Answers every n-th request with an internal server error, 0 to never fail.
+     */
+    void setFailEvery(int n) {
+        mFailEvery = n;
+    }
+
+    /**
+     * Sets the number of generated pages, pages beyond that are answered with an error.
+     */
+    void setPages(int pages) {
+        mPages = pages;
+    }
+
+    /**
+     * Serves the given test resource as is, regardless of the parameters.
+     */
+    void serveRecorded(String resource) throws IOException {
+        mRecordedResponse = readResource(resource);
+    }
+
+    /**
+     * Serves the given body as is, regardless of the parameters.
+     */
+    void serveBody(String body) {
+        mRecordedResponse = body.getBytes(UTF_8);
+    }
+
+    /**
+     * Serves generated pages of articles again.
+     */
+    void serveGenerated() {
+        mRecordedResponse = null;
+    }
+
+    /**
+     * Returns the number of requests received so far.
+     */
+    int getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    @Override
+    public void close() {
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        int request = mRequestCount.incrementAndGet();
+
+        if (mLatencyMs > 0) {
+            try {
+                Thread.sleep(mLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        int page = intParameter(parameters, "page", 1);
+        int pageSize = intParameter(parameters, "page-size", 10);
+
+        if (mErrorCode != 0) {
+            send(exchange, mErrorCode, error("Simulated error"));
+        } else if (mFailEvery > 0 && request % mFailEvery == 0) {
+            send(exchange, 500, error("Simulated failure"));
+        } else if (mRecordedResponse != null) {
+            send(exchange, 200, mRecordedResponse);
+        } else if (page < 1 || page > mPages) {
+            send(exchange, 400, error("requested page is beyond the number of available pages"));
+        } else {
+            String fields = parameters.containsKey("show-fields") ? parameters.get("show-fields") : "";
+            send(exchange, 200, generatedPage(page, pageSize, fields));
+        }
+    }
+
+    private byte[] generatedPage(int page, int pageSize, String fields) {
+        try {
+            JSONArray results = new JSONArray();
+
+            for (int i = 0; i < pageSize; i++) {
+                results.put(generatedArticle((page - 1) * pageSize + i, fields));
+            }
+
+            JSONObject response = new JSONObject()
+                    .put("status", "ok")
+                    .put("total", mPages * pageSize)
+                    .put("startIndex", (page - 1) * pageSize + 1)
+                    .put("pageSize", pageSize)
+                    .put("currentPage", page)
+                    .put("pages", mPages)
+                    .put("orderBy", "newest")
+                    .put("results", results);
+
+            return new JSONObject().put("response", response).toString().getBytes(UTF_8);
+
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Article number n of the feed, older as n grows, with the fields requested
+    private static JSONObject generatedArticle(int n, String fields) throws JSONException {
+        boolean all = fields.contains("all");
+
+        JSONObject fieldsObject = new JSONObject();
+
+        if (all || fields.contains("trailText")) {
+            fieldsObject.put("trailText", "Trail text of the generated article number " + n);
+        }
+        if (all || fields.contains("byline")) {
+            fieldsObject.put("byline", "Author " + n % 7);
+        }
+        if (all || fields.contains("thumbnail")) {
+            fieldsObject.put("thumbnail", "https://media.guim.co.uk/" + Integer.toHexString(n) + "/0_0_2000_1200/500.jpg");
+        }
+        if (all || fields.contains("body")) {
+            fieldsObject.put("body", "<p>Body of the generated article number " + n + ". Zażółć gęślą jaźń.</p>");
+        }
+
+        int minutes = 60 * 24 * 28 - n;
+
+        return new JSONObject()
+                .put("id", "world/2018/mar/generated-" + n)
+                .put("sectionName", n % 3 == 0 ? "Sport" : "World news")
+                .put("webPublicationDate", String.format(Locale.US, "2018-03-%02dT%02d:%02d:00Z",
+                        1 + minutes / (60 * 24), minutes / 60 % 24, minutes % 60))
+                .put("webTitle", generatedTitle(n))
+                .put("webUrl", "https://www.theguardian.com/world/2018/mar/generated-" + n)
+                .put("fields", fieldsObject);
+    }
+
+    // Distinct enough titles, so the ranker doesn't take generated articles for duplicates
+    private static String generatedTitle(int n) {
+        StringBuilder title = new StringBuilder();
+        int seed = n * 0x9E3779B9 + 0x632BE5AB;
+
+        for (int i = 0; i < 6; i++) {
+            seed ^= seed >>> 15;
+            seed *= 0x2C1B3C6D;
+            seed ^= seed >>> 12;
+
+            title.append(TITLE_WORDS[(seed >>> 1) % TITLE_WORDS.length]).append(' ');
+        }
+
+        return title.append(n).toString();
+    }
+
+    private static byte[] error(String message) {
+        return ("{\"response\":{\"status\":\"error\",\"message\":\"" + message + "\"}}").getBytes(UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+
+        if (query == null) {
+            return parameters;
+        }
+
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            }
+        }
+
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue) {
+        try {
+            return parameters.containsKey(name) ? Integer.parseInt(parameters.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static byte[] readResource(String resource) throws IOException {
+        InputStream inputStream = GuardianApiStub.class.getClassLoader().getResourceAsStream(resource);
+
+        if (inputStream == null) {
+            throw new IOException("Missing test resource " + resource);
+        }
+
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = inputStream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+
+            return output.toByteArray();
+
+        } finally {
+            inputStream.close();
+        }
+    }
+}
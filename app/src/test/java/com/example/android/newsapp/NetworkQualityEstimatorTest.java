@@ -0,0 +1,221 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link NetworkQualityEstimator} and the {@link FetchPolicy}
+ * it selects, fed by a simulated network.
+ */
+public class NetworkQualityEstimatorTest {
+
+    /**
+     * Network with the given round trip time and bandwidth, with some random jitter.
+     */
+    private static class SimulatedNetwork {
+
+        private final long latencyMs;
+        private final long bandwidthKbps;
+        private final Random random = new Random(7);
+
+        SimulatedNetwork(long latencyMs, long bandwidthKbps) {
+            this.latencyMs = latencyMs;
+            this.bandwidthKbps = bandwidthKbps;
+        }
+
+        // Reports a request with a response of the given size to the estimator
+        void request(NetworkQualityEstimator estimator, long bytes) {
+            double jitter = 0.8 + 0.4 * random.nextDouble();
+            long latency = Math.round(latencyMs * jitter);
+            long transfer = Math.round(bytes * 8.0 / bandwidthKbps * jitter);
+            estimator.onRequestCompleted(latency, bytes, transfer);
+        }
+
+        // Reports a request that timed out after the given time to the estimator
+        void timeout(NetworkQualityEstimator estimator, long timeoutMs) {
+            estimator.onRequestFailed(timeoutMs, true);
+        }
+
+        // Reports a request that failed fast, e.g. an unknown host, after the given time to the estimator
+        void fail(NetworkQualityEstimator estimator, long elapsedMs) {
+            estimator.onRequestFailed(elapsedMs, false);
+        }
+    }
+
+    private static final SimulatedNetwork EDGE = new SimulatedNetwork(800, 100);
+    private static final SimulatedNetwork HSPA = new SimulatedNetwork(250, 400);
+    private static final SimulatedNetwork LTE = new SimulatedNetwork(70, 2000);
+    private static final SimulatedNetwork WIFI = new SimulatedNetwork(30, 20000);
+
+    private static final long PAGE_BYTES = 200 * 1024;
+
+    /**
+     * Connection types and subtypes, the values of ConnectivityManager and TelephonyManager
+     */
+    private static final int TYPE_MOBILE = 0;
+    private static final int TYPE_WIFI = 1;
+    private static final int NETWORK_TYPE_UNKNOWN = 0;
+    private static final int NETWORK_TYPE_EDGE = 2;
+
+    @Test
+    public void policy_followsSimulatedNetworks() {
+        assertEquals(FetchPolicy.POOR, policyAfterRequests(EDGE, 10));
+        assertEquals(FetchPolicy.MODERATE, policyAfterRequests(HSPA, 10));
+        assertEquals(FetchPolicy.GOOD, policyAfterRequests(LTE, 10));
+        assertEquals(FetchPolicy.EXCELLENT, policyAfterRequests(WIFI, 10));
+    }
+
+    @Test
+    public void firstMeasurement_replacesSeed() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+        estimator.seed(TYPE_WIFI, NETWORK_TYPE_UNKNOWN, 50, 10000);
+        assertFalse(estimator.hasSamples());
+
+        estimator.onRequestCompleted(900, PAGE_BYTES, 16000);
+
+        assertTrue(estimator.hasSamples());
+        assertEquals(900, estimator.getLatencyMs());
+        assertEquals(Math.round(PAGE_BYTES * 8.0 / 16000), estimator.getBandwidthKbps());
+
+        // Measurements are not overwritten by a later seed of the same connection
+        estimator.seed(TYPE_WIFI, NETWORK_TYPE_UNKNOWN, 50, 10000);
+        assertEquals(900, estimator.getLatencyMs());
+    }
+
+    @Test
+    public void seedOfAnotherConnection_replacesMeasurements() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+        estimator.seed(TYPE_WIFI, NETWORK_TYPE_UNKNOWN, 50, 10000);
+
+        for (int i = 0; i < 10; i++) {
+            WIFI.request(estimator, PAGE_BYTES);
+        }
+
+        assertEquals(FetchPolicy.EXCELLENT, FetchPolicy.forNetwork(estimator));
+
+        // Leaving the app on Wi-Fi and coming back on EDGE, before any request is measured there
+        estimator.seed(TYPE_MOBILE, NETWORK_TYPE_EDGE, 1500, 80);
+
+        assertFalse(estimator.hasSamples());
+        assertEquals(1500, estimator.getLatencyMs());
+        assertEquals(80, estimator.getBandwidthKbps());
+        assertEquals(FetchPolicy.POOR, FetchPolicy.forNetwork(estimator));
+
+        // The measurements on EDGE are kept by the next seed of EDGE
+        EDGE.request(estimator, PAGE_BYTES);
+        long measured = estimator.getLatencyMs();
+        estimator.seed(TYPE_MOBILE, NETWORK_TYPE_EDGE, 1500, 80);
+
+        assertTrue(estimator.hasSamples());
+        assertEquals(measured, estimator.getLatencyMs());
+    }
+
+    @Test
+    public void smallResponses_doNotChangeBandwidth() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+        estimator.seed(TYPE_MOBILE, NETWORK_TYPE_UNKNOWN, 100, 3000);
+
+        estimator.onRequestCompleted(100, 512, 0);
+
+        assertEquals(3000, estimator.getBandwidthKbps());
+    }
+
+    @Test
+    public void estimate_adaptsWhenNetworkChanges() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+
+        for (int i = 0; i < 10; i++) {
+            WIFI.request(estimator, PAGE_BYTES);
+        }
+
+        assertEquals(FetchPolicy.EXCELLENT, FetchPolicy.forNetwork(estimator));
+
+        // Walking out of the Wi-Fi range, the policy drops within a few requests
+        int requests = 0;
+
+        while (FetchPolicy.forNetwork(estimator) != FetchPolicy.POOR) {
+            EDGE.request(estimator, PAGE_BYTES);
+            requests++;
+            assertTrue("Too slow to adapt", requests <= 5);
+        }
+    }
+
+    @Test
+    public void timeouts_lowerThePolicy() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+
+        for (int i = 0; i < 10; i++) {
+            WIFI.request(estimator, PAGE_BYTES);
+        }
+
+        assertEquals(FetchPolicy.EXCELLENT, FetchPolicy.forNetwork(estimator));
+
+        // The network degrades until no response arrives at all, the read timeout of NewsUtils is 10 s
+        WIFI.timeout(estimator, 10000);
+
+        assertEquals(FetchPolicy.POOR, FetchPolicy.forNetwork(estimator));
+    }
+
+    @Test
+    public void fastFailures_doNotRaiseThePolicy() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+
+        for (int i = 0; i < 10; i++) {
+            EDGE.request(estimator, PAGE_BYTES);
+        }
+
+        assertEquals(FetchPolicy.POOR, FetchPolicy.forNetwork(estimator));
+        long latency = estimator.getLatencyMs();
+
+        // An unknown host or a refused connection fails within milliseconds, whatever the network
+        for (int i = 0; i < 10; i++) {
+            EDGE.fail(estimator, 5);
+        }
+
+        assertEquals(latency, estimator.getLatencyMs());
+        assertEquals(FetchPolicy.POOR, FetchPolicy.forNetwork(estimator));
+    }
+
+    @Test
+    public void firstFailure_replacesSeed() {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+        estimator.seed(TYPE_WIFI, NETWORK_TYPE_UNKNOWN, 50, 10000);
+
+        estimator.onRequestFailed(15000, true);
+
+        assertTrue(estimator.hasSamples());
+        assertEquals(15000, estimator.getLatencyMs());
+        assertEquals(FetchPolicy.POOR, FetchPolicy.forNetwork(estimator));
+    }
+
+    @Test
+    public void poorPolicy_skipsHeavyFields() {
+        assertEquals(0, FetchPolicy.POOR.getThumbnailWidth());
+        assertEquals(0, FetchPolicy.POOR.getPrefetchDepth());
+        assertFalse(FetchPolicy.POOR.getFields().contains("body"));
+        assertFalse(FetchPolicy.POOR.getFields().contains("thumbnail"));
+        assertTrue(FetchPolicy.POOR.getPageSize() < FetchPolicy.EXCELLENT.getPageSize());
+    }
+
+    @Test
+    public void thumbnailUrl_isRewrittenToPolicyWidth() {
+        String url = "https://media.guim.co.uk/0a1b2c/0_0_3500_2100/500.jpg";
+
+        assertEquals("https://media.guim.co.uk/0a1b2c/0_0_3500_2100/140.jpg", FetchPolicy.MODERATE.thumbnailUrl(url));
+        assertEquals(url, FetchPolicy.GOOD.thumbnailUrl(url));
+        assertEquals("No thumbnail", FetchPolicy.MODERATE.thumbnailUrl("No thumbnail"));
+    }
+
+    private static FetchPolicy policyAfterRequests(SimulatedNetwork network, int requests) {
+        NetworkQualityEstimator estimator = new NetworkQualityEstimator();
+
+        for (int i = 0; i < requests; i++) {
+            network.request(estimator, PAGE_BYTES);
+        }
+
+        return FetchPolicy.forNetwork(estimator);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.android.newsapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load test of the whole fetch, parse and rank path of the {@link NewsLoader},
+ * driving thousands of cycles against the {@link GuardianApiStub}.
+ * Prints the latency percentiles and the bytes allocated per cycle, so they can be
+ * compared between changes. The allocations are only reported on JVMs able to count them.
+ */
+@Category(SlowTests.class)
+public class NewsLoaderLoadTest {
+
+    private static final int WARM_UP_CYCLES = 200;
+    private static final int MEASURED_CYCLES = 2000;
+
+    private static final int PAGES = 10;
+
+    private GuardianApiStub api;
+
+    private final RecordingLogger logger = new RecordingLogger();
+
+    @Before
+    public void setUp() throws Exception {
+        api = GuardianApiStub.start();
+        NewsUtils.setLogger(logger);
+        api.setPages(PAGES);
+    }
+
+    @After
+    public void tearDown() {
+        api.close();
+        NewsUtils.setLogger(null);
+    }
+
+    @Test
+    public void fetchParseRank_generatedPages() {
+        run("generated pages", FetchPolicy.GOOD);
+    }
+
+    @Test
+    public void fetchParseRank_smallPagesWithoutHeavyFields() {
+        run("small pages", FetchPolicy.POOR);
+    }
+
+    @Test
+    public void fetchParseRank_withFailures() {
+        // Every 10th request fails, the loader gives an empty list for those
+        api.setFailEvery(10);
+
+        int empty = 0;
+        FeedRanker ranker = new FeedRanker();
+
+        for (int i = 0; i < 500; i++) {
+            if (NewsLoader.loadArticles(url(i, FetchPolicy.GOOD), FetchPolicy.GOOD, ranker).isEmpty()) {
+                empty++;
+            }
+        }
+
+        assertEquals(50, empty);
+    }
+
+    private void run(String name, FetchPolicy policy) {
+        FeedRanker ranker = new FeedRanker();
+
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            NewsLoader.loadArticles(url(i, policy), policy, ranker);
+        }
+
+        long[] nanos = new long[MEASURED_CYCLES];
+        long allocatedBefore = allocatedBytes();
+
+        for (int i = 0; i < MEASURED_CYCLES; i++) {
+            long start = System.nanoTime();
+            List<News> articles = NewsLoader.loadArticles(url(i, policy), policy, ranker);
+            nanos[i] = System.nanoTime() - start;
+
+            assertEquals(policy.getPageSize(), articles.size());
+        }
+
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Arrays.sort(nanos);
+
+        System.out.println(String.format(Locale.US,
+                "%s: %d cycles of %d articles, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, allocated %s per cycle",
+                name, MEASURED_CYCLES, policy.getPageSize(), percentile(nanos, 50), percentile(nanos, 95),
+                percentile(nanos, 99), allocated < 0 ? "n/a"
+                        : String.format(Locale.US, "%.1f KB", allocated / 1024.0 / MEASURED_CYCLES)));
+    }
+
+    private String url(int cycle, FetchPolicy policy) {
+        return api.searchUrl("page=" + (cycle % PAGES + 1) + "&page-size=" + policy.getPageSize()
+                + "&show-fields=" + policy.getFields());
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        return sortedNanos[Math.min(sortedNanos.length - 1, sortedNanos.length * percentile / 100)] / 1e6;
+    }
+
+    // Bytes allocated by the current thread so far, or a negative value if the JVM can't tell.
+    // The stand-in's own allocations happen on its threads, so they're not counted.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return Long.MIN_VALUE / 2;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.android.newsapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the network and parsing path of {@link NewsUtils} and {@link NewsLoader},
+ * run against the {@link GuardianApiStub} instead of the real Guardian API.
+ */
+public class NewsUtilsTest {
+
+    private static final String QUERY = "q=news%20AND%20Poland&page-size=20&show-fields=all&api-key=test";
+
+    private GuardianApiStub api;
+
+    private final RecordingLogger logger = new RecordingLogger();
+
+    @Before
+    public void setUp() throws Exception {
+        api = GuardianApiStub.start();
+        NewsUtils.setLogger(logger);
+    }
+
+    @After
+    public void tearDown() {
+        api.close();
+        NewsUtils.setLogger(null);
+    }
+
+    @Test
+    public void recordedResponse_isParsed() throws Exception {
+        api.serveRecorded("guardian_search.json");
+
+        List<News> articles = NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD);
+
+        assertEquals(5, articles.size());
+
+        News first = articles.get(0);
+        assertEquals("World news", first.getSectionName());
+        assertEquals("2018-03-01T17:42:10Z", first.getDatePublished());
+        assertEquals("Poland's Senate passes controversial Holocaust speech bill | Christian Davies", first.getArticleTitle());
+        assertEquals("https://www.theguardian.com/world/2018/mar/01/poland-senate-holocaust-speech-bill", first.getArticleUrl());
+        assertEquals("Christian Davies", first.getArticleAuthor());
+        assertEquals("Bill would outlaw mention of Polish complicity in Nazi crimes", first.getTrailText());
+        assertEquals("https://media.guim.co.uk/4d2a9e3b/0_0_3500_2100/500.jpg", first.getThumbnailUrl());
+        assertTrue(first.getArticleBody().startsWith("<p>Poland’s Senate"));
+
+        // Missing fields get the defaults
+        assertEquals("No author", articles.get(1).getArticleAuthor());
+        assertEquals("<p>Zażółć gęślą jaźń.</p>", articles.get(1).getArticleBody());
+        assertEquals("", articles.get(2).getArticleBody());
+    }
+
+    @Test
+    public void articleWithoutFields_getsDefaultsNotPreviousArticlesValues() throws Exception {
+        api.serveRecorded("guardian_search.json");
+
+        List<News> articles = NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD);
+
+        // Follows an article with all the fields
+        News withoutFields = articles.get(4);
+        assertEquals("https://www.theguardian.com/culture/2018/mar/01/gdansk-shipyard-museum", withoutFields.getArticleUrl());
+        assertEquals("No author", withoutFields.getArticleAuthor());
+        assertEquals("No trail text", withoutFields.getTrailText());
+        assertEquals("No thumbnail", withoutFields.getThumbnailUrl());
+        assertEquals("", withoutFields.getArticleBody());
+    }
+
+    @Test
+    public void thumbnails_followPolicyWidth() throws Exception {
+        api.serveRecorded("guardian_search.json");
+
+        List<News> articles = NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.MODERATE);
+
+        assertEquals("https://media.guim.co.uk/4d2a9e3b/0_0_3500_2100/140.jpg", articles.get(0).getThumbnailUrl());
+    }
+
+    @Test
+    public void loader_ranksAndDeduplicatesRecordedResponse() throws Exception {
+        api.serveRecorded("guardian_search.json");
+
+        List<News> articles = NewsLoader.loadArticles(api.searchUrl(QUERY), FetchPolicy.GOOD, new FeedRanker());
+
+        // The live blog repeats the title of the newer article, so it's dropped
+        assertEquals(4, articles.size());
+        assertEquals("https://www.theguardian.com/world/2018/mar/01/poland-senate-holocaust-speech-bill",
+                articles.get(0).getArticleUrl());
+        assertEquals("https://www.theguardian.com/football/2018/mar/01/poland-world-cup-squad",
+                articles.get(2).getArticleUrl());
+    }
+
+    @Test
+    public void generatedPages_followRequestedSizeAndFields() {
+        api.setPages(3);
+
+        List<News> articles = NewsUtils.fetchNewsData(
+                api.searchUrl("page=2&page-size=15&show-fields=byline,trailText"), FetchPolicy.POOR);
+
+        assertEquals(15, articles.size());
+        assertEquals("https://www.theguardian.com/world/2018/mar/generated-15", articles.get(0).getArticleUrl());
+        assertEquals("No thumbnail", articles.get(0).getThumbnailUrl());
+        assertEquals("", articles.get(0).getArticleBody());
+    }
+
+    @Test
+    public void pageBeyondLast_givesEmptyList() {
+        api.setPages(2);
+
+        assertTrue(NewsUtils.fetchNewsData(api.searchUrl("page=3&" + QUERY), FetchPolicy.GOOD).isEmpty());
+    }
+
+    @Test
+    public void errorResponse_givesEmptyList() {
+        api.setErrorCode(503);
+
+        assertTrue(NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD).isEmpty());
+        assertEquals(1, api.getRequestCount());
+        assertTrue(logger.getMessages().contains("Error response code: 503"));
+    }
+
+    @Test
+    public void malformedResponse_givesEmptyList() {
+        api.serveBody("{\"response\":{\"results\":[{\"webTitle\":");
+
+        assertTrue(NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD).isEmpty());
+    }
+
+    @Test
+    public void emptyResponse_givesEmptyList() {
+        api.serveBody("");
+
+        assertTrue(NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD).isEmpty());
+    }
+
+    @Test
+    public void responseOverBudget_givesEmptyList() {
+        StringBuilder body = new StringBuilder("{\"response\":{\"results\":[");
+
+        while (body.length() <= BoundedStreamReader.DEFAULT_MAX_BYTES) {
+            body.append("{\"webTitle\":\"padding padding padding padding padding\"},");
+        }
+
+        body.append("{}]}}");
+        api.serveBody(body.toString());
+
+        assertTrue(NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD).isEmpty());
+    }
+
+    @Test
+    public void latency_delaysResponse() {
+        api.setLatency(200);
+
+        long start = System.nanoTime();
+        List<News> articles = NewsUtils.fetchNewsData(api.searchUrl(QUERY), FetchPolicy.GOOD);
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+        assertEquals(20, articles.size());
+        assertTrue(elapsedMs >= 200);
+    }
+
+    @Test
+    public void unreachableServer_givesEmptyList() {
+        String url = api.searchUrl(QUERY);
+        api.close();
+
+        assertTrue(NewsUtils.fetchNewsData(url, FetchPolicy.GOOD).isEmpty());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.android.newsapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link NewsUtils.Logger} keeping the error messages in memory, standing in for
+ * android.util.Log in local unit tests.
+ */
+class RecordingLogger implements NewsUtils.Logger {
+
+    private final List<String> mMessages = new ArrayList<>();
+
+    @Override
+    public synchronized void e(String tag, String message, Throwable throwable) {
+        mMessages.add(message);
+    }
+
+    /**
+     * Returns the messages logged so far.
+     */
+    synchronized List<String> getMessages() {
+        return new ArrayList<>(mMessages);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark of the {@link SectionedArticleStore} with 1 to 8 parallel writers, against
+ * a single list deduplicating under one lock, the way all the articles went through one loader.
+ * Every writer fetches its own sections, as the topic feeds would. Every article is kept,
+ * nothing is evicted. Prints the median throughput, so it can be compared between changes.
+ * The writers only run in parallel on a machine with at least as many cores, with fewer
+ * the numbers of both stores mostly show the cost of switching between the writers.
+ */
+@Category(SlowTests.class)
+public class SectionedArticleStoreBenchmark {
+
+    private static final int[] WRITER_COUNTS = {1, 2, 4, 8};
+
+    private static final int ARTICLES_PER_WRITER = 50000;
+    private static final int SECTIONS_PER_WRITER = 3;
+
+    private static final int RUNS = 7;
+
+    private interface Store {
+        void add(News article);
+
+        int size();
+    }
+
+    @Test
+    public void compareWithSingleLock() throws Exception {
+        for (int writers : WRITER_COUNTS) {
+            News[][] articles = articles(writers);
+
+            double single = measure(writers, articles, new StoreFactory() {
+                @Override
+                public Store create() {
+                    return new SingleLockStore();
+                }
+            });
+
+            double sectioned = measure(writers, articles, new StoreFactory() {
+                @Override
+                public Store create() {
+                    final SectionedArticleStore store = new SectionedArticleStore(ARTICLES_PER_WRITER);
+
+                    return new Store() {
+                        @Override
+                        public void add(News article) {
+                            store.add(article);
+                        }
+
+                        @Override
+                        public int size() {
+                            int size = 0;
+
+                            for (String section : store.sections()) {
+                                size += store.size(section);
+                            }
+
+                            return size;
+                        }
+                    };
+                }
+            });
+
+            System.out.println(String.format(Locale.US,
+                    "%d writers: single lock %6.2f M articles/s, sectioned %6.2f M articles/s",
+                    writers, single, sectioned));
+        }
+    }
+
+    private interface StoreFactory {
+        Store create();
+    }
+
+    // Returns the median throughput in millions of articles per second
+    private static double measure(int writers, final News[][] articles, StoreFactory factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        try {
+            double[] throughput = new double[RUNS];
+
+            // The first runs warm up
+            for (int run = -2; run < RUNS; run++) {
+                final Store store = factory.create();
+                final CountDownLatch start = new CountDownLatch(1);
+                final CountDownLatch done = new CountDownLatch(writers);
+
+                for (int w = 0; w < writers; w++) {
+                    final News[] own = articles[w];
+
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                start.await();
+
+                                for (News article : own) {
+                                    store.add(article);
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                done.countDown();
+                            }
+                        }
+                    });
+                }
+
+                long startNanos = System.nanoTime();
+                start.countDown();
+                assertTrue(done.await(60, TimeUnit.SECONDS));
+                long nanos = System.nanoTime() - startNanos;
+
+                assertEquals(writers * ARTICLES_PER_WRITER, store.size());
+
+                if (run >= 0) {
+                    throughput[run] = writers * ARTICLES_PER_WRITER / (nanos / 1e3);
+                }
+            }
+
+            Arrays.sort(throughput);
+            return throughput[RUNS / 2];
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static News[][] articles(int writers) {
+        News[][] articles = new News[writers][ARTICLES_PER_WRITER];
+
+        for (int w = 0; w < writers; w++) {
+            for (int i = 0; i < ARTICLES_PER_WRITER; i++) {
+                articles[w][i] = new News("Section " + (w * SECTIONS_PER_WRITER + i % SECTIONS_PER_WRITER),
+                        "2018-03-01T10:00:00Z", "Article " + i,
+                        "https://www.theguardian.com/world/2018/mar/01/writer-" + w + "-article-" + i,
+                        "Author", "", "No thumbnail", "");
+            }
+        }
+
+        return articles;
+    }
+
+    // All the articles in one list, deduplicated under one lock
+    private static class SingleLockStore implements Store {
+
+        private final List<News> mArticles = new ArrayList<>();
+        private final LongIntHashMap mUrlHashes = new LongIntHashMap(16);
+
+        @Override
+        public synchronized void add(News article) {
+            if (mUrlHashes.putIfAbsent(FeedRanker.canonicalUrlHash(article.getArticleUrl()), mArticles.size())) {
+                mArticles.add(article);
+            }
+        }
+
+        @Override
+        public synchronized int size() {
+            return mArticles.size();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.android.newsapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the {@link SectionedArticleStore}, including a stress test
+ * with concurrent writers and readers.
+ */
+public class SectionedArticleStoreTest {
+
+    private static final String[] SECTIONS = {"World news", "Sport", "Football", "Culture", "Business", "Opinion"};
+
+    @Test
+    public void articles_arePartitionedBySection() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        store.add(article("World news", 1));
+        store.add(article("Sport", 2));
+        store.add(article("World news", 3));
+
+        assertEquals(2, store.size("World news"));
+        assertEquals(1, store.size("Sport"));
+        assertEquals(0, store.size("Culture"));
+
+        List<News> world = store.snapshot("World news");
+        assertEquals(url(1), world.get(0).getArticleUrl());
+        assertEquals(url(3), world.get(1).getArticleUrl());
+
+        Set<String> sections = new HashSet<>(store.sections());
+        assertEquals(2, sections.size());
+        assertTrue(sections.contains("World news"));
+        assertTrue(sections.contains("Sport"));
+    }
+
+    @Test
+    public void duplicateUrl_isNotAddedAgain() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        assertTrue(store.add(article("Sport", 1)));
+        assertFalse(store.add(article("Sport", 1)));
+
+        // The same article, only with tracking parameters
+        assertFalse(store.add(new News("Sport", "2018-03-01T10:00:00Z", "Title",
+                url(1) + "?CMP=share_btn_tw", "Author", "", "No thumbnail", "")));
+
+        assertEquals(1, store.size("Sport"));
+    }
+
+    @Test
+    public void addAll_returnsNumberOfAddedArticles() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        List<News> articles = new ArrayList<>();
+        articles.add(article("Sport", 1));
+        articles.add(article("Culture", 2));
+        articles.add(article("Sport", 1));
+
+        assertEquals(2, store.addAll(articles));
+        assertEquals(0, store.addAll(articles));
+    }
+
+    @Test
+    public void articlesWithoutSection_areStored() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        store.add(article(null, 1));
+
+        assertEquals(1, store.size(null));
+        assertEquals(1, store.snapshot(SectionedArticleStore.NO_SECTION).size());
+    }
+
+    @Test
+    public void snapshot_doesNotChangeWhenArticlesAreAdded() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        store.add(article("Sport", 0));
+        List<News> snapshot = store.snapshot("Sport");
+
+        // Enough to grow the log a few times
+        for (int i = 1; i < 100; i++) {
+            store.add(article("Sport", i));
+        }
+
+        assertEquals(1, snapshot.size());
+        assertEquals(url(0), snapshot.get(0).getArticleUrl());
+        assertEquals(100, store.snapshot("Sport").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshot_isImmutable() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+        store.add(article("Sport", 0));
+
+        store.snapshot("Sport").add(article("Sport", 1));
+    }
+
+    @Test
+    public void fullSection_evictsOldestArticles() {
+        SectionedArticleStore store = new SectionedArticleStore(3);
+
+        for (int i = 0; i < 5; i++) {
+            store.add(article("Sport", i));
+        }
+
+        store.add(article("Culture", 5));
+
+        List<News> sport = store.snapshot("Sport");
+        assertEquals(3, sport.size());
+        assertEquals(url(2), sport.get(0).getArticleUrl());
+        assertEquals(url(4), sport.get(2).getArticleUrl());
+
+        // Other sections are not affected
+        assertEquals(1, store.size("Culture"));
+
+        // An evicted article can be added again, a kept one can't
+        assertTrue(store.add(article("Sport", 0)));
+        assertFalse(store.add(article("Sport", 4)));
+        assertEquals(url(3), store.snapshot("Sport").get(0).getArticleUrl());
+    }
+
+    @Test
+    public void snapshot_doesNotChangeWhenArticlesAreEvicted() {
+        SectionedArticleStore store = new SectionedArticleStore(10);
+
+        for (int i = 0; i < 10; i++) {
+            store.add(article("Sport", i));
+        }
+
+        List<News> snapshot = store.snapshot("Sport");
+
+        // Enough to copy the log into new arrays a few times
+        for (int i = 10; i < 100; i++) {
+            store.add(article("Sport", i));
+        }
+
+        assertEquals(10, snapshot.size());
+        assertEquals(url(0), snapshot.get(0).getArticleUrl());
+        assertEquals(url(9), snapshot.get(9).getArticleUrl());
+
+        List<News> latest = store.snapshot("Sport");
+        assertEquals(10, latest.size());
+        assertEquals(url(90), latest.get(0).getArticleUrl());
+        assertEquals(url(99), latest.get(9).getArticleUrl());
+    }
+
+    @Test
+    public void bodies_areNotKept() {
+        SectionedArticleStore store = new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION);
+
+        store.add(new News("Sport", "2018-03-01T10:00:00Z", "Title", url(1), "Author", "Trail",
+                "No thumbnail", "<p>A long body</p>"));
+
+        News kept = store.snapshot("Sport").get(0);
+        assertEquals("", kept.getArticleBody());
+        assertEquals("Title", kept.getArticleTitle());
+        assertEquals("Trail", kept.getTrailText());
+        assertEquals(url(1), kept.getArticleUrl());
+    }
+
+    @Test
+    public void missingSection_isEmptySnapshot() {
+        assertTrue(new SectionedArticleStore(SectionedArticleStore.DEFAULT_MAX_ARTICLES_PER_SECTION).snapshot("Sport").isEmpty());
+    }
+
+    @Test
+    public void concurrentWritersAndReaders_seeConsistentSections() throws Exception {
+        final int writers = 8;
+        final int readers = 4;
+        final int articlesPerWriter = 20000;
+
+        // Writers share half of their articles, so the same articles are written concurrently
+        final int distinctArticles = articlesPerWriter * writers / 2;
+
+        // Large enough to keep every article, so a later snapshot always extends the earlier one
+        final SectionedArticleStore store = new SectionedArticleStore(distinctArticles);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        final CountDownLatch writersDone = new CountDownLatch(writers);
+
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        for (int i = 0; i < articlesPerWriter; i++) {
+                            int id = (writer * articlesPerWriter / 2 + i) % distinctArticles;
+                            store.add(article(SECTIONS[id % SECTIONS.length], id));
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        writersDone.countDown();
+                    }
+                }
+            });
+        }
+
+        for (int r = 0; r < readers; r++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        List<List<News>> previous = new ArrayList<>();
+
+                        for (String section : SECTIONS) {
+                            previous.add(store.snapshot(section));
+                        }
+
+                        while (writing.get() && failure.get() == null) {
+                            for (int s = 0; s < SECTIONS.length; s++) {
+                                List<News> snapshot = store.snapshot(SECTIONS[s]);
+                                assertConsistent(SECTIONS[s], previous.get(s), snapshot);
+                                previous.set(s, snapshot);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+        writing.set(false);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        int total = 0;
+
+        for (String section : SECTIONS) {
+            List<News> snapshot = store.snapshot(section);
+            assertConsistent(section, new ArrayList<News>(), snapshot);
+            total += snapshot.size();
+        }
+
+        assertEquals(distinctArticles, total);
+    }
+
+    @Test
+    public void concurrentWritersAndReaders_withEviction_seeConsistentSections() throws Exception {
+        final int writers = 4;
+        final int readers = 2;
+        final int articlesPerWriter = 20000;
+        final int maxArticles = 50;
+
+        final SectionedArticleStore store = new SectionedArticleStore(maxArticles);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        final CountDownLatch writersDone = new CountDownLatch(writers);
+
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        for (int i = 0; i < articlesPerWriter; i++) {
+                            int id = writer * articlesPerWriter + i;
+                            store.add(article(SECTIONS[id % SECTIONS.length], id));
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        writersDone.countDown();
+                    }
+                }
+            });
+        }
+
+        for (int r = 0; r < readers; r++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        while (writing.get() && failure.get() == null) {
+                            for (String section : SECTIONS) {
+                                List<News> snapshot = store.snapshot(section);
+                                assertTrue(snapshot.size() <= maxArticles);
+                                assertConsistent(section, new ArrayList<News>(), snapshot);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+        writing.set(false);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        for (String section : SECTIONS) {
+            assertEquals(maxArticles, store.size(section));
+        }
+    }
+
+    // A later snapshot extends the earlier one, has no gaps and no duplicates
+    private static void assertConsistent(String section, List<News> earlier, List<News> later) {
+        assertTrue(later.size() >= earlier.size());
+
+        for (int i = 0; i < earlier.size(); i++) {
+            assertSame(earlier.get(i), later.get(i));
+        }
+
+        Set<String> urls = new HashSet<>();
+
+        for (News article : later) {
+            assertNotNull(article);
+            assertEquals(section, article.getSectionName());
+            assertTrue(urls.add(article.getArticleUrl()));
+        }
+    }
+
+    private static News article(String section, int id) {
+        return new News(section, "2018-03-01T10:00:00Z", "Article " + id, url(id), "Author", "", "No thumbnail", "");
+    }
+
+    private static String url(int id) {
+        return "https://www.theguardian.com/world/2018/mar/01/article-" + id;
+    }
+}
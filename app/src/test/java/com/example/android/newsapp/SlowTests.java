@@ -0,0 +1,8 @@
+package com.example.android.newsapp;
+
+/**
+ * JUnit category of the load tests and benchmarks. They take a while and print their
+ * measurements, so the test task leaves them out unless run with -PslowTests.
+ */
+interface SlowTests {
+}